@@ -0,0 +1,33 @@
+package pl.abstracts.functions;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * 支持带<code>Throwable</code>的<code>DoubleSupplier</code>，取值时不会装箱
+ *
+ * @author LiYan
+ * @see DoubleSupplier
+ * @see SupplierWithThrowable
+ */
+@FunctionalInterface
+public interface DoubleSupplierWithThrowable<EX extends Throwable> {
+
+    /**
+     * getAsDouble
+     * @see DoubleSupplier#getAsDouble()
+     */
+    double getAsDouble() throws EX;
+
+    /**
+     * 转换为<code>DoubleSupplier</code>，转换时会自动捕获并忽略异常（异常时返回0）
+     * @return 去除了异常的<code>DoubleSupplier</code>
+     */
+    default DoubleSupplier toDoubleSupplier() {
+        return () -> {
+            try {
+                return getAsDouble();
+            } catch (Throwable ignored) {}
+            return 0D;
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package pl.abstracts.functions;
+
+import java.util.function.IntSupplier;
+
+/**
+ * 支持带<code>Throwable</code>的<code>IntSupplier</code>，取值时不会装箱
+ *
+ * @author LiYan
+ * @see IntSupplier
+ * @see SupplierWithThrowable
+ */
+@FunctionalInterface
+public interface IntSupplierWithThrowable<EX extends Throwable> {
+
+    /**
+     * getAsInt
+     * @see IntSupplier#getAsInt()
+     */
+    int getAsInt() throws EX;
+
+    /**
+     * 转换为<code>IntSupplier</code>，转换时会自动捕获并忽略异常（异常时返回0）
+     * @return 去除了异常的<code>IntSupplier</code>
+     */
+    default IntSupplier toIntSupplier() {
+        return () -> {
+            try {
+                return getAsInt();
+            } catch (Throwable ignored) {}
+            return 0;
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package pl.abstracts.functions;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 支持带<code>Throwable</code>的<code>LongSupplier</code>，取值时不会装箱
+ *
+ * @author LiYan
+ * @see LongSupplier
+ * @see SupplierWithThrowable
+ */
+@FunctionalInterface
+public interface LongSupplierWithThrowable<EX extends Throwable> {
+
+    /**
+     * getAsLong
+     * @see LongSupplier#getAsLong()
+     */
+    long getAsLong() throws EX;
+
+    /**
+     * 转换为<code>LongSupplier</code>，转换时会自动捕获并忽略异常（异常时返回0）
+     * @return 去除了异常的<code>LongSupplier</code>
+     */
+    default LongSupplier toLongSupplier() {
+        return () -> {
+            try {
+                return getAsLong();
+            } catch (Throwable ignored) {}
+            return 0L;
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package pl.abstracts.validate;
+
+/**
+ * 只校验一次的{@link Validatable}，适合校验逻辑较重（正则、跨字段规则）的不可变类
+ * <hr><pre>
+ * public final class Address extends CachedValidatable {
+ *     private final String zipCode;
+ *     private final String city;
+ *     // constructor getter ...;
+ *
+ *     &#64;Override
+ *     protected boolean computeValid() {
+ *         return ZIP_PATTERN.matcher(zipCode).matches() &amp;&amp; CITIES.contains(city);
+ *     }
+ * }</pre>
+ * <hr>
+ * <p>第一次调用{@link #valid()}时执行{@link #computeValid()}，结果保存在volatile字段中，之后只需要一次字段读取</p>
+ * <p>并发的第一次调用可能各执行一次computeValid，因此computeValid必须只依赖不可变的状态</p>
+ * @author LiYan
+ */
+public abstract class CachedValidatable implements Validatable {
+
+    private static final byte UNKNOWN = 0;
+
+    private static final byte VALID = 1;
+
+    private static final byte INVALID = 2;
+
+    /**
+     * 校验结果，不参与序列化，反序列化后重新校验
+     */
+    private transient volatile byte validState;
+
+    @Override
+    public final boolean valid() {
+        byte state = validState;
+        if (state == UNKNOWN) {
+            state = computeValid() ? VALID : INVALID;
+            validState = state;
+        }
+        return state == VALID;
+    }
+
+    /**
+     * 计算是否有效，只应依赖不可变的状态
+     * @return valid
+     */
+    protected abstract boolean computeValid();
+
+}
@@ -22,6 +22,7 @@ package pl.abstracts.validate;
  * }
  * </pre>
  * @author LiYan
+ * @see CachedValidatable
  */
 public interface Validatable {
 
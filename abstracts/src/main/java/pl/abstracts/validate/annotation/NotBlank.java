@@ -0,0 +1,19 @@
+package pl.abstracts.validate.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 字符串字段不为空（广义）：不为null、""、"null"、"undefined"，与CheckUtils.isBlank一致
+ * <p>只能用于String字段</p>
+ * @author LiYan
+ * @see NotNull
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface NotBlank {
+}
@@ -0,0 +1,18 @@
+package pl.abstracts.validate.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 字段不为null且不为空：String、CharSequence、Collection、Map的长度不为0，数组的长度不为0
+ * @author LiYan
+ * @see NotNull
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface NotEmpty {
+}
@@ -0,0 +1,36 @@
+package pl.abstracts.validate.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 字段不为null，由processor模块在编译时生成校验代码
+ * <hr><pre>
+ * public class Order implements Validatable {
+ *     &#64;NotNull
+ *     Long id;
+ *     &#64;NotBlank
+ *     String orderNo;
+ *     &#64;NotEmpty
+ *     List&lt;Item&gt; items;
+ *     &#64;Positive
+ *     BigDecimal amount;
+ *
+ *     &#64;Override
+ *     public boolean valid() {
+ *         return OrderValidator.valid(this); // 编译时生成，没有反射
+ *     }
+ * }</pre>
+ * <hr>
+ * <p>私有字段通过getter（getXxx或isXxx）读取</p>
+ * @author LiYan
+ * @see pl.abstracts.validate.Validatable
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface NotNull {
+}
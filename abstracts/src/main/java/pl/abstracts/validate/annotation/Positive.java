@@ -0,0 +1,18 @@
+package pl.abstracts.validate.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 数值字段大于0：基本类型、包装类型（null不通过）、BigDecimal和BigInteger（按signum判断）、其他Number（按doubleValue判断）
+ * @author LiYan
+ * @see NotNull
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Positive {
+}
@@ -2,7 +2,10 @@ package pl.enums;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -14,6 +17,11 @@ import javax.annotation.Nullable;
  */
 public class EnumUtils {
 
+    /**
+     * 完美哈希为每个桶最多尝试多少个位移
+     */
+    private static final int MAX_SEED_ATTEMPTS = 1 << 16;
+
     /**
      * 使用提供的索引构造方法，为枚举类建立索引
      * <hr><pre>
@@ -52,6 +60,8 @@ public class EnumUtils {
      *
      * <p>作为索引的字段必须在枚举值中不重复</p>
      * <p>可以给一个枚举类建立多个索引</p>
+     * <p>会根据索引的类型和分布选择数组、完美哈希或开放寻址实现，Integer索引可以用{@link EnumIndexCache#getEnumByIntIndex(int)}避免装箱</p>
+     * <p>String索引使用完美哈希，不限制枚举值的数量；只有多个索引的hashCode相同（比如"Aa"和"BB"）时退回开放寻址</p>
      * @param enumClass 枚举类
      * @param makeIndexFun 使用哪个字段建立索引
      * @param <T> 索引的类型
@@ -64,9 +74,81 @@ public class EnumUtils {
                 throw new RuntimeException(
                     String.format("Enum index must be unique, but found multiple enum: %s and %s", oldVal.name(), newVal.name()));
             }));
-        return new EnumIndexCache<>(map);
+        return specialize(map);
+    }
+
+    /**
+     * 根据索引键的分布选择实现：
+     * <li>Integer键且足够密集：直接按(键 - 最小键)作为数组下标</li>
+     * <li>String键：构造时为每个哈希桶搜索无冲突的位移（完美哈希），查询只需要一个槽位和一次equals；有相同hashCode的键时使用开放寻址</li>
+     * <li>其他：开放寻址的线性探测表</li>
+     */
+    private static <T, E extends Enum<E>> EnumIndexCache<T, E> specialize(Map<T, E> map) {
+        Map<T, E> keys = new HashMap<>(map);
+        // null不能作为索引查询，直接去掉
+        keys.remove(null);
+        if (keys.isEmpty()) {
+            return new EnumIndexCache<>(map);
+        }
+        if (allInstanceOf(keys, Integer.class)) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (T key : keys.keySet()) {
+                min = Math.min(min, (Integer) key);
+                max = Math.max(max, (Integer) key);
+            }
+            long span = (long) max - min + 1;
+            if (span <= DenseIntIndexCache.MAX_SPAN && span <= 4L * keys.size() + 16) {
+                return new DenseIntIndexCache<>(map, keys, min, (int) span);
+            }
+        }
+        if (allInstanceOf(keys, String.class)) {
+            EnumIndexCache<T, E> perfect = PerfectHashIndexCache.build(map, keys);
+            if (perfect != null) {
+                return perfect;
+            }
+        }
+        return new OpenAddressingIndexCache<>(map, keys);
     }
 
+    private static boolean allInstanceOf(Map<?, ?> map, Class<?> type) {
+        for (Object key : map.keySet()) {
+            if (key.getClass() != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 不小于n的2的幂
+     */
+    private static int tableSizeFor(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * 完美哈希使用的混合函数（murmur3的fmix32），是int上的双射，每一位输入都会影响所有输出位
+     */
+    private static int avalanche(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 把hashCode的高位混合到低位
+     */
+    private static int mix(int h, int seed) {
+        int x = (h ^ seed) * 0x9E3779B9;
+        return x ^ (x >>> 16);
+    }
+
+    /**
+     * 枚举索引缓存，由{@link #buildEnumIndex}根据索引键的分布选择具体实现
+     */
     public static class EnumIndexCache<T, E extends Enum<E>> {
 
         private final Map<T, E> cacheMap;
@@ -91,6 +173,250 @@ public class EnumUtils {
             }
             return e;
         }
+
+        /**
+         * 按int索引查询，Integer索引不需要装箱；只适用于Integer索引，其他类型的索引（包括Character、Short、Byte）总是返回null
+         * <p>与{@link #getEnumByIndex(Object)}不同名，避免char、short、byte参数被拓宽为int后选中此方法</p>
+         */
+        @Nullable
+        public E getEnumByIntIndex(int index) {
+            return cacheMap.get(index);
+        }
+
+        public E getEnumByIntIndex(int index, E defaultEnum) {
+            E e = getEnumByIntIndex(index);
+            return e != null ? e : defaultEnum;
+        }
+    }
+
+    /**
+     * 密集的Integer索引：直接数组下标
+     */
+    private static final class DenseIntIndexCache<T, E extends Enum<E>> extends EnumIndexCache<T, E> {
+
+        /**
+         * 最多使用多大的数组
+         */
+        static final int MAX_SPAN = 1 << 12;
+
+        private final int min;
+
+        private final E[] table;
+
+        @SuppressWarnings("unchecked")
+        DenseIntIndexCache(Map<T, E> map, Map<T, E> keys, int min, int span) {
+            super(map);
+            this.min = min;
+            this.table = (E[]) new Enum<?>[span];
+            keys.forEach((key, e) -> table[(Integer) key - min] = e);
+        }
+
+        @Override
+        public E getEnumByIndex(T index) {
+            return index instanceof Integer ? getEnumByIntIndex(((Integer) index).intValue()) : null;
+        }
+
+        @Override
+        public E getEnumByIndex(T index, E defaultEnum) {
+            E e = getEnumByIndex(index);
+            return e != null ? e : defaultEnum;
+        }
+
+        @Override
+        public E getEnumByIntIndex(int index) {
+            // 无符号比较，同时排除小于min的情况
+            int i = index - min;
+            return Integer.compareUnsigned(i, table.length) < 0 ? table[i] : null;
+        }
+    }
+
+    /**
+     * String索引的完美哈希（hash-and-displace）：键先按哈希分到若干个桶，构造时为每个桶找到一个位移，
+     * 让所有键落在不同槽位；查询时只计算两次哈希并比较一个槽位
+     */
+    private static final class PerfectHashIndexCache<T, E extends Enum<E>> extends EnumIndexCache<T, E> {
+
+        private final int bucketMask;
+
+        private final int[] displacements;
+
+        private final int mask;
+
+        private final String[] keys;
+
+        private final E[] values;
+
+        private PerfectHashIndexCache(Map<T, E> map, int[] displacements, String[] keys, E[] values) {
+            super(map);
+            this.bucketMask = displacements.length - 1;
+            this.displacements = displacements;
+            this.mask = keys.length - 1;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * 槽位数量是键数量的2到4倍，平均每个桶2到4个键；从键最多的桶开始，依次为每个桶尝试位移
+         * <p>hashCode各不相同时，每个桶总能在{@link #MAX_SEED_ATTEMPTS}次以内找到位移；有相同hashCode的键无法区分，返回null</p>
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        static <T, E extends Enum<E>> PerfectHashIndexCache<T, E> build(Map<T, E> map, Map<T, E> keys) {
+            int n = keys.size();
+            int size = tableSizeFor(n) * 2;
+            int buckets = Math.max(1, tableSizeFor(n) >> 1);
+            String[] names = new String[n];
+            int[] hashes = new int[n];
+            int[] counts = new int[buckets];
+            Set<Integer> distinct = new HashSet<>();
+            int k = 0;
+            for (T key : keys.keySet()) {
+                names[k] = (String) key;
+                hashes[k] = key.hashCode();
+                if (!distinct.add(hashes[k])) {
+                    return null;
+                }
+                counts[avalanche(hashes[k]) & (buckets - 1)]++;
+                k++;
+            }
+            // 按桶排列键：members[start[b], start[b + 1])是桶b中的键
+            int[] start = new int[buckets + 1];
+            for (int b = 0; b < buckets; b++) {
+                start[b + 1] = start[b] + counts[b];
+            }
+            int[] members = new int[n];
+            int[] filled = Arrays.copyOf(start, buckets);
+            for (int i = 0; i < n; i++) {
+                members[filled[avalanche(hashes[i]) & (buckets - 1)]++] = i;
+            }
+            Integer[] order = new Integer[buckets];
+            int largest = 0;
+            for (int b = 0; b < buckets; b++) {
+                order[b] = b;
+                largest = Math.max(largest, counts[b]);
+            }
+            Arrays.sort(order, (x, y) -> Integer.compare(counts[y], counts[x]));
+
+            int[] displacements = new int[buckets];
+            String[] table = new String[size];
+            E[] values = (E[]) new Enum<?>[size];
+            int[] slots = new int[largest];
+            for (int b : order) {
+                if (counts[b] == 0) {
+                    break;
+                }
+                int displacement = place(hashes, members, start[b], start[b + 1], table, slots);
+                if (displacement == 0) {
+                    return null;
+                }
+                displacements[b] = displacement;
+                for (int j = start[b]; j < start[b + 1]; j++) {
+                    int i = members[j];
+                    table[slots[j - start[b]]] = names[i];
+                    values[slots[j - start[b]]] = keys.get(names[i]);
+                }
+            }
+            return new PerfectHashIndexCache<>(map, displacements, table, values);
+        }
+
+        /**
+         * 为一个桶寻找位移，让桶中的键落在不同的空槽位，槽位写入slots
+         * @return 找到的位移（非0），找不到时返回0
+         */
+        private static int place(int[] hashes, int[] members, int from, int to, String[] table, int[] slots) {
+            int mask = table.length - 1;
+            search:
+            for (int seed = 1; seed <= MAX_SEED_ATTEMPTS; seed++) {
+                int displacement = seed * 0x9E3779B9;
+                for (int j = from; j < to; j++) {
+                    int slot = avalanche(hashes[members[j]] ^ displacement) & mask;
+                    if (table[slot] != null) {
+                        continue search;
+                    }
+                    for (int p = from; p < j; p++) {
+                        if (slots[p - from] == slot) {
+                            continue search;
+                        }
+                    }
+                    slots[j - from] = slot;
+                }
+                return displacement;
+            }
+            return 0;
+        }
+
+        @Override
+        public E getEnumByIndex(T index) {
+            if (!(index instanceof String)) {
+                return null;
+            }
+            int hash = index.hashCode();
+            int slot = avalanche(hash ^ displacements[avalanche(hash) & bucketMask]) & mask;
+            String key = keys[slot];
+            return key != null && key.equals(index) ? values[slot] : null;
+        }
+
+        @Override
+        public E getEnumByIndex(T index, E defaultEnum) {
+            E e = getEnumByIndex(index);
+            return e != null ? e : defaultEnum;
+        }
+
+        @Override
+        public E getEnumByIntIndex(int index) {
+            return null;
+        }
+    }
+
+    /**
+     * 其他索引：开放寻址（线性探测），负载不超过1/2
+     */
+    private static final class OpenAddressingIndexCache<T, E extends Enum<E>> extends EnumIndexCache<T, E> {
+
+        private final int mask;
+
+        private final Object[] keys;
+
+        private final E[] values;
+
+        @SuppressWarnings("unchecked")
+        OpenAddressingIndexCache(Map<T, E> map, Map<T, E> keys) {
+            super(map);
+            int size = tableSizeFor(keys.size() * 2);
+            this.mask = size - 1;
+            this.keys = new Object[size];
+            this.values = (E[]) new Enum<?>[size];
+            keys.forEach((key, e) -> {
+                int slot = mix(key.hashCode(), 0) & mask;
+                while (this.keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = key;
+                this.values[slot] = e;
+            });
+        }
+
+        @Override
+        public E getEnumByIndex(T index) {
+            if (index == null) {
+                return null;
+            }
+            int slot = mix(index.hashCode(), 0) & mask;
+            Object key;
+            while ((key = keys[slot]) != null) {
+                if (key.equals(index)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        @Override
+        public E getEnumByIndex(T index, E defaultEnum) {
+            E e = getEnumByIndex(index);
+            return e != null ? e : defaultEnum;
+        }
     }
 
 }
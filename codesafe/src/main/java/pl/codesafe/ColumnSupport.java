@@ -0,0 +1,91 @@
+package pl.codesafe;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 列式Opt（{@link OptIntColumn}等）共用的有效位图工具
+ * <p>位图以long[]存储，第i行有效时第i位为1；超出行数的位始终为0</p>
+ * <p>并行处理按位图的word切分，每个分片都是64行的整数倍，分片之间不会写同一个word</p>
+ * @author LiYan
+ */
+final class ColumnSupport {
+
+    /**
+     * 并行时每个分片包含的word数量（即64 * 1024行）
+     */
+    static final int CHUNK_WORDS = 1024;
+
+    private ColumnSupport() {
+    }
+
+    static int wordCount(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * 前size位全部为1的位图
+     */
+    static long[] allValid(int size) {
+        long[] words = new long[wordCount(size)];
+        int full = size >>> 6;
+        for (int w = 0; w < full; w++) {
+            words[w] = -1L;
+        }
+        if ((size & 63) != 0) {
+            words[full] = (1L << size) - 1;
+        }
+        return words;
+    }
+
+    /**
+     * 复制位图并对齐到行数：较短的位图（比如{@code BitSet.toLongArray()}省略了末尾的0）补0，超出行数的位清除
+     */
+    static long[] alignValidity(long[] validity, int size) {
+        long[] words = Arrays.copyOf(validity, wordCount(size));
+        if ((size & 63) != 0) {
+            words[words.length - 1] &= (1L << size) - 1;
+        }
+        return words;
+    }
+
+    static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static boolean isSet(long[] words, int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * 按word分片处理，数据量足够大且parallel为true时使用ForkJoin公共池并行
+     * @param wordCount word总数
+     * @param parallel 是否允许并行
+     * @param action 处理[fromWord, toWord)
+     */
+    static void forEachChunk(int wordCount, boolean parallel, ChunkAction action) {
+        int chunks = (wordCount + CHUNK_WORDS - 1) / CHUNK_WORDS;
+        if (!parallel || chunks <= 1) {
+            action.apply(0, wordCount);
+            return;
+        }
+        IntStream.range(0, chunks).parallel()
+            .forEach(c -> action.apply(c * CHUNK_WORDS, Math.min(wordCount, (c + 1) * CHUNK_WORDS)));
+    }
+
+    static boolean useParallel(int wordCount, boolean parallel) {
+        return parallel && wordCount > CHUNK_WORDS;
+    }
+
+    @FunctionalInterface
+    interface ChunkAction {
+
+        void apply(int fromWord, int toWord);
+
+    }
+
+}
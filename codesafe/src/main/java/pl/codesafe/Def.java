@@ -1,7 +1,9 @@
 package pl.codesafe;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -10,6 +12,8 @@ import pl.codesafe.SafeOperator.SaferManager;
 
 /**
  * 定义一个默认值和校验规则，如果获取的值未通过校验，返回默认值
+ * <p>如果希望失败时返回最近一次通过校验的值而不是固定的默认值，可以使用{@link #lastGood()}</p>
+ * <p>基本类型请使用不装箱的{@link IntDef}、{@link LongDef}、{@link DoubleDef}</p>
  * @author LiYan
  */
 public class Def<T> {
@@ -78,12 +82,12 @@ public class Def<T> {
         try {
             T value = supplier.get();
             if (tester.test(value)) {
-                return value;
+                return passed(value);
             }
         } catch (Throwable t) {
             SAFER.handleException(t);
         }
-        return defaultValue;
+        return fallback();
     }
 
     /**
@@ -94,12 +98,12 @@ public class Def<T> {
     public T get(T value) {
         try {
             if (tester.test(value)) {
-                return value;
+                return passed(value);
             }
         } catch (Throwable t) {
             SAFER.handleException(t);
         }
-        return defaultValue;
+        return fallback();
     }
 
     /**
@@ -112,7 +116,7 @@ public class Def<T> {
         try {
             T value = supplier.get();
             if (tester.test(value)) {
-                return value;
+                return passed(value);
             }
         } catch (Throwable t) {
             SAFER.handleException(t);
@@ -129,7 +133,7 @@ public class Def<T> {
     public T checkOrNull(T value) {
         try {
             if (tester.test(value)) {
-                return value;
+                return passed(value);
             }
         } catch (Throwable t) {
             SAFER.handleException(t);
@@ -139,6 +143,126 @@ public class Def<T> {
 
 
 
+    /**
+     * 构造一个记住最近一次通过校验的值的Def，默认值和校验规则与当前Def相同
+     * <p>获取失败或未通过校验时，返回最近一次通过校验的值，从未通过校验时才返回默认值</p>
+     * <p>只记住一个值，只能用于同一个数据源，不同参数的查询需要分别创建</p>
+     * @return 新的Def
+     * @see LastGood
+     */
+    public LastGood<T> lastGood() {
+        return new LastGood<>(defaultValue, tester, 0);
+    }
+
+    /**
+     * 构造一个记住最近一次通过校验的值的Def，默认值和校验规则与当前Def相同
+     * <p>获取失败或未通过校验时，如果最近一次通过校验的值不超过{@code maxAge}，返回它，否则返回默认值</p>
+     * <p>只记住一个值，只能用于同一个数据源，不同参数的查询需要分别创建</p>
+     * @param maxAge 最近一次通过校验的值最长可以使用多久
+     * @return 新的Def
+     * @see LastGood
+     */
+    public LastGood<T> lastGood(@Nonnull Duration maxAge) {
+        if (maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("maxAge must be positive, but was " + maxAge);
+        }
+        return new LastGood<>(defaultValue, tester, maxAge.toNanos());
+    }
+
+    /**
+     * 值通过校验时调用
+     * @return 要返回的值
+     */
+    T passed(T value) {
+        return value;
+    }
+
+    /**
+     * 获取失败或未通过校验时调用
+     * @return 要返回的值
+     */
+    T fallback() {
+        return defaultValue;
+    }
+
+    /**
+     * 记住最近一次通过校验的值的Def，获取失败或未通过校验时返回该值，用于下游短暂故障时继续提供稍旧的数据
+     * <hr><pre>
+     * private static final Def&lt;BigDecimal&gt; PRICE = Def.BIG_DECIMAL.filter(CheckUtils::moreThanZero);
+     * private final Map&lt;Long, Def.LastGood&lt;BigDecimal&gt;&gt; lastPrices = new ConcurrentHashMap&lt;&gt;();
+     * lastPrices.computeIfAbsent(id, k -> PRICE.lastGood(Duration.ofMinutes(5)))
+     *     .get(() -> priceClient.query(id)); // 查询失败时返回该id在5分钟内最近一次查到的价格，没有时返回BigDecimal.ZERO</pre>
+     * <hr>
+     * <p>一个LastGood只记住一个值：不同参数（比如不同id）的查询不能共用同一个LastGood，否则失败时会返回其他参数的值，需要按参数分别创建</p>
+     * <p>记录和读取都基于无锁的原子引用，线程安全</p>
+     */
+    public static final class LastGood<T> extends Def<T> {
+
+        /**
+         * 小于等于0表示不限制
+         */
+        private final long maxAgeNanos;
+
+        private final AtomicReference<Stamped<T>> last = new AtomicReference<>();
+
+        private LastGood(T defaultValue, Predicate<T> tester, long maxAgeNanos) {
+            super(defaultValue, tester);
+            this.maxAgeNanos = maxAgeNanos;
+        }
+
+        /**
+         * 设置校验器，会返回带有校验器的新LastGood，不会继承已记住的值
+         * @param tester 校验函数
+         * @return 新的LastGood
+         */
+        @Override
+        public LastGood<T> filter(@Nonnull Predicate<T> tester) {
+            return new LastGood<>(defaultValue(), tester, maxAgeNanos);
+        }
+
+        /**
+         * 最近一次通过校验的值，不考虑maxAge
+         * @return 最近一次通过校验的值，从未通过校验时返回null
+         */
+        @Nullable
+        public T lastGoodValue() {
+            Stamped<T> stamped = last.get();
+            return stamped != null ? stamped.value : null;
+        }
+
+        @Override
+        T passed(T value) {
+            // 不限制时长时，值没有变化就不需要重新记录
+            if (maxAgeNanos > 0 || lastGoodValue() != value) {
+                last.set(new Stamped<>(value, System.nanoTime()));
+            }
+            return value;
+        }
+
+        @Override
+        T fallback() {
+            Stamped<T> stamped = last.get();
+            if (stamped != null && (maxAgeNanos <= 0 || System.nanoTime() - stamped.nanos <= maxAgeNanos)) {
+                return stamped.value;
+            }
+            return defaultValue();
+        }
+
+        private static final class Stamped<T> {
+
+            final T value;
+
+            final long nanos;
+
+            Stamped(T value, long nanos) {
+                this.value = value;
+                this.nanos = nanos;
+            }
+        }
+    }
+
+
+
     public static final Def<Boolean> BOOLEAN = Def.of(false);
     public static final Def<String> STRING = Def.of("");
     public static final Def<Byte> BYTE = Def.of((byte) 0);
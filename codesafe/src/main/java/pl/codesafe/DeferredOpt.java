@@ -0,0 +1,284 @@
+package pl.codesafe;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import pl.abstracts.functions.FunctionWithThrowable;
+import pl.abstracts.functions.SupplierWithThrowable;
+import pl.codesafe.SafeOperator.SaferManager;
+
+/**
+ * 延迟执行的{@link Opt}：filter、map等步骤只会被记录，直到第一次调用终结方法（orElse、orNull、ifPresent等）时，
+ * 才执行取值函数，并在一次循环中依次执行所有步骤，中间步骤不会创建Opt
+ * <hr><pre>
+ * DeferredOpt&lt;String&gt; detail = Opt.defer(() -> orderService.query(id))
+ *     .filter(Order::isPaid)
+ *     .map(Order::toDetailString);
+ * if (log.isDebugEnabled()) {
+ *     log.debug("order: {}", detail.orElse("none")); // 只有debug时才会查询订单
+ * }</pre>
+ * <hr>
+ * <li>取值函数和每个步骤中的异常都会交给{@code SaferManager.saferFor(Opt.class)}的异常处理器处理，结果为空</li>
+ * <li>safeMap中的异常与{@link Opt#safeMap}一致，直接忽略</li>
+ * <li>调用终结方法的DeferredOpt只求值一次并缓存结果，并发调用时也只会执行一次；求值后不再引用之前的步骤和函数</li>
+ * <li>求值时已经分出多条链的DeferredOpt也会缓存结果，这些链共享它之前的步骤，取值函数只会执行一次；
+ * 其他步骤不缓存结果，在求值之后才从中间步骤分出的新链会重新执行取值函数</li>
+ * @author LiYan
+ * @see Opt#defer(SupplierWithThrowable)
+ */
+public final class DeferredOpt<T> {
+
+    private static final SafeOperator SAFER = SaferManager.saferFor(Opt.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<DeferredOpt> CHILDREN =
+        AtomicIntegerFieldUpdater.newUpdater(DeferredOpt.class, "children");
+
+    private static final int SOURCE = 0;
+
+    private static final int MAP = 1;
+
+    private static final int FILTER = 2;
+
+    private static final int MAP_OPT = 3;
+
+    private static final int SAFE_MAP = 4;
+
+    /**
+     * 上一个步骤，SOURCE时为null；求值并缓存结果后置为null，不再引用之前的步骤
+     */
+    private volatile DeferredOpt<?> prev;
+
+    private final int kind;
+
+    /**
+     * 取值函数或步骤函数，求值并缓存结果后置为null
+     */
+    private volatile Object fn;
+
+    /**
+     * 基于该步骤追加的步骤数量，大于1时求值会缓存该步骤的结果
+     */
+    private volatile int children;
+
+    private volatile Opt<T> result;
+
+    private DeferredOpt(DeferredOpt<?> prev, int kind, Object fn) {
+        this.prev = prev;
+        this.kind = kind;
+        this.fn = Objects.requireNonNull(fn);
+        if (prev != null) {
+            CHILDREN.incrementAndGet(prev);
+        }
+    }
+
+    static <T, EX extends Throwable> DeferredOpt<T> of(@Nonnull SupplierWithThrowable<? extends T, EX> supplier) {
+        return new DeferredOpt<>(null, SOURCE, supplier);
+    }
+
+    /* 步骤，只记录不执行 */
+
+    /**
+     * @see Opt#filter(Predicate)
+     */
+    public DeferredOpt<T> filter(@Nonnull Predicate<? super T> predicate) {
+        return new DeferredOpt<>(this, FILTER, predicate);
+    }
+
+    /**
+     * @see Opt#drop(Predicate)
+     */
+    public DeferredOpt<T> drop(@Nonnull Predicate<? super T> predicate) {
+        return filter(predicate.negate());
+    }
+
+    /**
+     * @see Opt#map(Function)
+     */
+    public <U> DeferredOpt<U> map(@Nonnull Function<? super T, ? extends U> mapper) {
+        return new DeferredOpt<>(this, MAP, mapper);
+    }
+
+    /**
+     * @see Opt#safeMap(FunctionWithThrowable)
+     */
+    public <U, EX extends Throwable> DeferredOpt<U> safeMap(@Nonnull FunctionWithThrowable<? super T, ? extends U, EX> mapper) {
+        return new DeferredOpt<>(this, SAFE_MAP, mapper);
+    }
+
+    /**
+     * @see Opt#mapOpt(Function)
+     */
+    public <U> DeferredOpt<U> mapOpt(@Nonnull Function<? super T, Opt<U>> mapper) {
+        return new DeferredOpt<>(this, MAP_OPT, mapper);
+    }
+
+    /* 终结方法，第一次调用时求值 */
+
+    /**
+     * 求值并返回结果
+     */
+    public Opt<T> toOpt() {
+        Opt<T> r = result;
+        if (r != null) {
+            return r;
+        }
+        // 从靠近取值函数的一端开始，依次求值还没有求值的分叉步骤，每段只在自己的终点加锁执行一次
+        Deque<DeferredOpt<?>> shared = null;
+        for (DeferredOpt<?> node = prev(this); node != null; node = prev(node)) {
+            if (node.children > 1) {
+                if (shared == null) {
+                    shared = new ArrayDeque<>();
+                }
+                shared.push(node);
+            }
+        }
+        if (shared != null) {
+            for (DeferredOpt<?> node : shared) {
+                node.evaluate();
+            }
+        }
+        return evaluate();
+    }
+
+    public boolean isPresent() {
+        return toOpt().isPresent();
+    }
+
+    public T orNull() {
+        return toOpt().orNull();
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则返回{@code others}中第一个不为null的值
+     */
+    @SafeVarargs
+    public final T orElse(T... others) {
+        T value = toOpt().orNull();
+        if (value == null) {
+            for (T other : others) {
+                if (other != null) {
+                    return other;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则依次调用{@code others}并返回第一个不为null的调用结果
+     */
+    @SafeVarargs
+    public final T orElse(Supplier<? extends T>... others) {
+        T value = toOpt().orNull();
+        if (value == null && others != null) {
+            for (Supplier<? extends T> other : others) {
+                value = other.get();
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return value;
+    }
+
+    public DeferredOpt<T> ifPresent(Consumer<? super T> consumer) {
+        toOpt().ifPresent(consumer);
+        return this;
+    }
+
+    public DeferredOpt<T> ifAbsent(Runnable runnable) {
+        toOpt().ifAbsent(runnable);
+        return this;
+    }
+
+    /**
+     * 上一个步骤；已经求值（prev被置为null）或者是取值函数时返回null
+     */
+    private static DeferredOpt<?> prev(DeferredOpt<?> node) {
+        return node.result != null ? null : node.prev;
+    }
+
+    /**
+     * 从最近的已求值步骤（或取值函数）开始，在一次循环中执行到当前步骤，只在当前步骤缓存一个Opt
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized Opt<T> evaluate() {
+        Opt<T> r = result;
+        if (r != null) {
+            return r;
+        }
+        // 只收集最近的已求值步骤之后的步骤
+        int count = 0;
+        for (DeferredOpt<?> node = this; node != null && node.result == null; node = node.prev) {
+            count++;
+        }
+        DeferredOpt<?>[] chain = new DeferredOpt<?>[count];
+        DeferredOpt<?> node = this;
+        for (int i = count - 1; i >= 0 && node != null; i--, node = node.prev) {
+            chain[i] = node;
+        }
+        Object value = node == null || node.result == null ? null : node.result.orNull();
+        try {
+            for (DeferredOpt<?> step : chain) {
+                if (step == null) {
+                    continue;
+                }
+                // 其他线程可能已经把它作为终点求值，result总是先于prev和fn写入
+                Opt<?> memo = step.result;
+                Object f = step.fn;
+                if (memo != null || f == null) {
+                    value = step.result.orNull();
+                } else if (step.kind == SOURCE) {
+                    value = ((SupplierWithThrowable<?, ?>) f).get();
+                } else {
+                    value = apply(step.kind, f, value);
+                }
+                if (value == null) {
+                    break;
+                }
+            }
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+            value = null;
+        }
+        r = Opt.of((T) value);
+        result = r;
+        prev = null;
+        fn = null;
+        return r;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object apply(int kind, Object fn, Object value) throws Throwable {
+        switch (kind) {
+            case MAP:
+                return ((Function<Object, ?>) fn).apply(value);
+            case FILTER:
+                return ((Predicate<Object>) fn).test(value) ? value : null;
+            case MAP_OPT:
+                return Objects.requireNonNull(((Function<Object, Opt<?>>) fn).apply(value)).orNull();
+            case SAFE_MAP:
+                try {
+                    return ((FunctionWithThrowable<Object, ?, ?>) fn).apply(value);
+                } catch (Throwable ignored) {
+                    return null;
+                }
+            default:
+                throw new IllegalStateException("Unknown step: " + kind);
+        }
+    }
+
+    @Override
+    public String toString() {
+        Opt<T> r = result;
+        return r != null ? "Deferred" + r : "DeferredOpt.unevaluated";
+    }
+
+}
@@ -0,0 +1,111 @@
+package pl.codesafe;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import pl.abstracts.functions.SupplierWithThrowable;
+
+/**
+ * 线程安全的延迟取值，取值函数最多只会成功执行一次
+ * <hr><pre>
+ * private static final Lazy&lt;Client&gt; CLIENT = Safer.lazy(() -> Client.connect(config));
+ * CLIENT.get(); // 第一次调用时才创建，之后直接返回
+ * </pre>
+ * <hr>
+ * <p>初始化完成后读取只有一次volatile读，不会加锁；并发初始化时只有一个线程会执行取值函数</p>
+ * <p>取值失败时，异常交给创建它的safer的异常处理器处理，并返回null；
+ * 之后是缓存这次失败（一直返回null）还是在下次调用时重试，由创建时的{@code cacheFailure}决定</p>
+ * @author LiYan
+ * @see SafeOperator#lazy(SupplierWithThrowable, boolean)
+ */
+public final class Lazy<T> {
+
+    /**
+     * 取值结果为null
+     */
+    private static final Object NULL = new Object();
+
+    /**
+     * 取值失败并缓存了失败
+     */
+    private static final Object FAILED = new Object();
+
+    private final SafeOperator safer;
+
+    private final boolean cacheFailure;
+
+    /**
+     * 取值函数，初始化完成后置为null，以便回收
+     */
+    private SupplierWithThrowable<? extends T, ?> supplier;
+
+    /**
+     * 为null时表示还没有初始化
+     */
+    private volatile Object value;
+
+    Lazy(@Nonnull SafeOperator safer, @Nonnull SupplierWithThrowable<? extends T, ?> supplier, boolean cacheFailure) {
+        this.safer = safer;
+        this.supplier = supplier;
+        this.cacheFailure = cacheFailure;
+    }
+
+    /**
+     * 获取值，第一次调用时执行取值函数
+     * @return 取到的值，取值失败时返回null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object v = value;
+        if (v == null) {
+            synchronized (this) {
+                v = value;
+                if (v == null) {
+                    v = initialize();
+                }
+            }
+        }
+        return v == NULL || v == FAILED ? null : (T) v;
+    }
+
+    private Object initialize() {
+        try {
+            T result = supplier.get();
+            Object v = result == null ? NULL : result;
+            value = v;
+            supplier = null;
+            return v;
+        } catch (Throwable t) {
+            if (cacheFailure) {
+                value = FAILED;
+                supplier = null;
+            }
+            safer.handleException(t);
+        }
+        return FAILED;
+    }
+
+    /**
+     * 是否已经初始化（成功取值，或者缓存了失败）
+     */
+    public boolean isInitialized() {
+        return value != null;
+    }
+
+    /**
+     * 是否缓存了失败
+     */
+    public boolean isFailed() {
+        return value == FAILED;
+    }
+
+    @Override
+    public String toString() {
+        Object v = value;
+        if (v == null) {
+            return "Lazy.uninitialized";
+        }
+        return v == FAILED ? "Lazy.failed" : String.format("Lazy[%s]", v == NULL ? null : v);
+    }
+
+}
@@ -0,0 +1,157 @@
+package pl.codesafe;
+
+import java.util.function.LongPredicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import pl.abstracts.functions.LongSupplierWithThrowable;
+import pl.codesafe.SafeOperator.SaferManager;
+
+/**
+ * 基本类型long的{@link Def}：定义一个默认值和校验规则，如果获取的值未通过校验，返回默认值
+ * <p>取值、校验和返回都使用基本类型，不会装箱；适合在循环中代替{@code Def.LONG}</p>
+ * <hr><pre>
+ * LongDef positive = LongDef.of(0L, v -> v > 0);
+ * positive.get(() -> metric.value()); // 取值失败或不大于0时返回0L
+ * positive.replaceAll(values); // 一次遍历，把数组中不大于0的值替换为0L</pre>
+ * <hr>
+ * <p>未设置校验规则时，所有值都视为通过，只有取值异常时才返回默认值</p>
+ * <p>异常交给{@code SaferManager.saferFor(Def.class)}的异常处理器处理，与{@link Def}一致</p>
+ * @author LiYan
+ * @see Def
+ */
+public final class LongDef {
+
+    private static final SafeOperator SAFER = SaferManager.saferFor(Def.class);
+
+    private final long defaultValue;
+
+    /**
+     * 为null时表示不校验
+     */
+    @Nullable
+    private final LongPredicate tester;
+
+    private LongDef(long defaultValue, @Nullable LongPredicate tester) {
+        this.defaultValue = defaultValue;
+        this.tester = tester;
+    }
+
+    /**
+     * 构造一种LongDef，传入自定义默认值。只有取值异常时才会返回默认值
+     * @param defaultValue 默认值
+     * @return 构造得到的LongDef
+     */
+    public static LongDef of(long defaultValue) {
+        return new LongDef(defaultValue, null);
+    }
+
+    /**
+     * 构造一种LongDef，传入自定义默认值和校验函数。当取到的值没有通过校验函数时，会自动返回默认值
+     * @param defaultValue 默认值
+     * @param tester 校验函数
+     * @return 构造得到的LongDef
+     */
+    public static LongDef of(long defaultValue, @Nonnull LongPredicate tester) {
+        return new LongDef(defaultValue, tester);
+    }
+
+    /**
+     * 设置校验器，会返回带有校验器的新LongDef
+     * @param tester 校验函数
+     * @return 新的LongDef
+     */
+    public LongDef filter(@Nonnull LongPredicate tester) {
+        return new LongDef(defaultValue, tester);
+    }
+
+    /**
+     * 获取默认值
+     * @return 默认值
+     */
+    public long defaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * 获取值，如果获取时出错或者取到的值无法通过test，返回默认值
+     * @param supplier 取值函数
+     * @return 取到的值或默认值
+     */
+    public <EX extends Throwable> long get(@Nonnull LongSupplierWithThrowable<EX> supplier) {
+        try {
+            long value = supplier.getAsLong();
+            if (tester == null || tester.test(value)) {
+                return value;
+            }
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 获取值，如果该值无法通过test，返回默认值
+     * @param value 取的值
+     * @return 读到的值或默认值
+     */
+    public long get(long value) {
+        return test(value) ? value : defaultValue;
+    }
+
+    /**
+     * 对数组中的每个值执行{@link #get(long)}，返回新的数组，原数组不变
+     * @param values 要校验的值
+     * @return 未通过校验的位置替换为默认值后的新数组，values为null时返回空数组
+     */
+    public long[] getAll(long[] values) {
+        if (values == null) {
+            return new long[0];
+        }
+        long[] result = new long[values.length];
+        if (tester == null) {
+            System.arraycopy(values, 0, result, 0, values.length);
+            return result;
+        }
+        for (int i = 0; i < values.length; i++) {
+            long value = values[i];
+            result[i] = test(value) ? value : defaultValue;
+        }
+        return result;
+    }
+
+    /**
+     * 一次遍历，把数组中未通过校验的值原地替换为默认值
+     * @param values 要校验的值
+     * @return 被替换的数量
+     */
+    public int replaceAll(long[] values) {
+        if (values == null || tester == null) {
+            return 0;
+        }
+        int replaced = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (!test(values[i])) {
+                values[i] = defaultValue;
+                replaced++;
+            }
+        }
+        return replaced;
+    }
+
+    private boolean test(long value) {
+        if (tester == null) {
+            return true;
+        }
+        try {
+            return tester.test(value);
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return false;
+    }
+
+
+
+    public static final LongDef ZERO = LongDef.of(0L);
+
+}
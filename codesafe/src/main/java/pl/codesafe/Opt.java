@@ -7,12 +7,18 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import javax.annotation.Nonnull;
 import pl.abstracts.functions.FunctionWithThrowable;
+import pl.abstracts.functions.SupplierWithThrowable;
 import pl.codesafe.SafeOperator.SaferManager;
 
 /**
  * Better optional
+ * <p>基本类型请使用不装箱的{@link OptInt}、{@link OptLong}、{@link OptDouble}</p>
+ * <p>{@link #of(Object)}会复用Boolean、小整数、空字符串以及{@link #registerConstants}注册的常量的Opt实例</p>
  * @author LiYan
  * @see Optional
  */
@@ -73,14 +79,43 @@ public class Opt<T> {
      * 返回描述指定值的{@code Opt}，如果值为null，则返回空{@code Opt}。
      */
     public static <T> Opt<T> of(T value) {
-        return value == null ? empty() : check(value);
+        if (value == null) {
+            return empty();
+        }
+        Opt<T> cached = OptCache.lookup(value);
+        return cached != null ? cached : new Opt<>(value);
     }
 
     /**
      * 返回描述指定Optional中的值的{@code Opt}，如果值为null，则返回空{@code Opt}。
      */
     public static <T> Opt<T> of(@SuppressWarnings("OptionalUsedAsFieldOrParameterType") Optional<T> optional) {
-        return optional.map(Opt::check).orElseGet(Opt::empty);
+        return of(optional.orElse(null));
+    }
+
+    /**
+     * 注册常量，之后{@link #of(Object)}遇到同一个对象（按引用匹配）时复用同一个Opt实例
+     * <p>只应注册数量有限、长期存在的常量，注册的常量不会被回收</p>
+     * @param constants 常量，null会被忽略
+     */
+    public static void registerConstants(@Nonnull Object... constants) {
+        OptCache.register(constants);
+    }
+
+    /**
+     * 注册枚举的所有值，之后{@link #of(Object)}遇到这些值时复用同一个Opt实例
+     * @param enumClass 枚举类
+     */
+    public static <E extends Enum<E>> void registerConstants(@Nonnull Class<E> enumClass) {
+        OptCache.register(enumClass.getEnumConstants());
+    }
+
+    /**
+     * 返回延迟执行的{@link DeferredOpt}，取值函数和后续步骤在第一次调用终结方法时才执行，并在一次循环中完成
+     * @param supplier 取值函数，异常交给异常处理器处理，结果为空
+     */
+    public static <T, EX extends Throwable> DeferredOpt<T> defer(@Nonnull SupplierWithThrowable<? extends T, EX> supplier) {
+        return DeferredOpt.of(supplier);
     }
 
     /**
@@ -129,9 +164,13 @@ public class Opt<T> {
         Objects.requireNonNull(predicate);
         if (!isPresent()) {
             return this;
-        } else {
-            return SAFER.getBool(() -> predicate.test(value)) ? this : empty();
         }
+        try {
+            return predicate.test(value) ? this : empty();
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return empty();
     }
 
     /**
@@ -141,9 +180,13 @@ public class Opt<T> {
     public <R> Opt<T> filterField(Function<T, R> getFieldFun, Predicate<? super R> predicate) {
         if (!isPresent()) {
             return this;
-        } else {
-            return SAFER.getBool(() -> predicate.test(getFieldFun.apply(value))) ? this : empty();
         }
+        try {
+            return predicate.test(getFieldFun.apply(value)) ? this : empty();
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return empty();
     }
 
     /**
@@ -174,14 +217,42 @@ public class Opt<T> {
         }
     }
 
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptInt}，否则返回空{@code OptInt}。
+     */
+    public OptInt mapToInt(@Nonnull ToIntFunction<? super T> mapper) {
+        return isPresent() ? OptInt.of(mapper.applyAsInt(value)) : OptInt.empty();
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptLong}，否则返回空{@code OptLong}。
+     */
+    public OptLong mapToLong(@Nonnull ToLongFunction<? super T> mapper) {
+        return isPresent() ? OptLong.of(mapper.applyAsLong(value)) : OptLong.empty();
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptDouble}，否则返回空{@code OptDouble}。
+     */
+    public OptDouble mapToDouble(@Nonnull ToDoubleFunction<? super T> mapper) {
+        return isPresent() ? OptDouble.of(mapper.applyAsDouble(value)) : OptDouble.empty();
+    }
+
     /**
      * 在map的基础上加了try catch，如果map方法出现异常，忽略并返回empty
      */
     public <U, EX extends Throwable> Opt<U> safeMap(FunctionWithThrowable<? super T, ? extends U, EX> mapper) {
+        if (mapper == null) {
+            SAFER.handleException(new NullPointerException());
+            return empty();
+        }
+        if (!isPresent()) {
+            return empty();
+        }
         try {
-            return map(mapper.toFunction());
-        } catch (Throwable e) {
-            SAFER.handleException(e);
+            return Opt.of(mapper.apply(value));
+        } catch (Throwable ignored) {
+            // 与toFunction()一致，映射函数的异常直接忽略
             return empty();
         }
     }
@@ -0,0 +1,104 @@
+package pl.codesafe;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * {@link Opt#of(Object)}使用的Opt实例缓存，常见的值复用同一个Opt，不再每次创建
+ * <li>内置：Boolean、[-128, 127]范围内的Byte/Short/Integer/Long、空字符串</li>
+ * <li>注册：通过{@link Opt#registerConstants}注册的常量（比如枚举值），按引用匹配</li>
+ * <p>Opt的equals基于值比较，缓存不会改变相等性</p>
+ * @author LiYan
+ */
+final class OptCache {
+
+    private static final int LOW = -128;
+
+    private static final int HIGH = 127;
+
+    private static final Opt<Boolean> TRUE = Opt.check(Boolean.TRUE);
+
+    private static final Opt<Boolean> FALSE = Opt.check(Boolean.FALSE);
+
+    private static final Opt<String> EMPTY_STRING = Opt.check("");
+
+    private static final Opt<?>[] BYTES = new Opt<?>[HIGH - LOW + 1];
+
+    private static final Opt<?>[] SHORTS = new Opt<?>[HIGH - LOW + 1];
+
+    private static final Opt<?>[] INTEGERS = new Opt<?>[HIGH - LOW + 1];
+
+    private static final Opt<?>[] LONGS = new Opt<?>[HIGH - LOW + 1];
+
+    static {
+        for (int i = LOW; i <= HIGH; i++) {
+            BYTES[i - LOW] = Opt.check((byte) i);
+            SHORTS[i - LOW] = Opt.check((short) i);
+            INTEGERS[i - LOW] = Opt.check(i);
+            LONGS[i - LOW] = Opt.check((long) i);
+        }
+    }
+
+    /**
+     * 注册的常量，写时复制，按引用匹配
+     */
+    private static volatile Map<Object, Opt<?>> constants = new IdentityHashMap<>();
+
+    private OptCache() {
+    }
+
+    /**
+     * 查找缓存的Opt
+     * @param value 非null的值
+     * @return 缓存的Opt，没有时返回null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static <T> Opt<T> lookup(@Nonnull T value) {
+        Class<?> type = value.getClass();
+        Opt<?> cached;
+        if (type == Integer.class) {
+            cached = small(INTEGERS, (Integer) value);
+        } else if (type == String.class) {
+            cached = ((String) value).isEmpty() ? EMPTY_STRING : null;
+        } else if (type == Boolean.class) {
+            cached = (Boolean) value ? TRUE : FALSE;
+        } else if (type == Long.class) {
+            long l = (Long) value;
+            cached = l >= LOW && l <= HIGH ? LONGS[(int) l - LOW] : null;
+        } else if (type == Short.class) {
+            cached = small(SHORTS, (Short) value);
+        } else if (type == Byte.class) {
+            cached = BYTES[(Byte) value - LOW];
+        } else {
+            cached = null;
+        }
+        if (cached == null) {
+            // 内置缓存没有命中时再查注册的常量，比如注册的字符串或超出内置范围的数字
+            Map<Object, Opt<?>> map = constants;
+            cached = map.isEmpty() ? null : map.get(value);
+        }
+        return (Opt<T>) cached;
+    }
+
+    private static Opt<?> small(Opt<?>[] cache, int value) {
+        return value >= LOW && value <= HIGH ? cache[value - LOW] : null;
+    }
+
+    /**
+     * 注册常量，已注册的常量会被忽略
+     * @param values 常量，null会被忽略
+     */
+    static synchronized void register(@Nonnull Object[] values) {
+        Map<Object, Opt<?>> next = new IdentityHashMap<>(constants);
+        for (Object value : values) {
+            if (value != null && lookup(value) == null) {
+                next.put(value, Opt.check(value));
+            }
+        }
+        constants = next;
+    }
+
+}
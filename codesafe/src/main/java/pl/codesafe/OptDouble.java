@@ -0,0 +1,215 @@
+package pl.codesafe;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import pl.codesafe.SafeOperator.SaferManager;
+
+/**
+ * 基本类型double的{@link Opt}，API与Opt一致，存取都不会装箱
+ * <hr><pre>
+ * ParseUtils.optDouble("-1").filter(v -> v > 0).orElse(0); // 全程不装箱</pre>
+ * <hr>
+ * <p>filter、drop中的异常会交给{@code SaferManager.saferFor(Opt.class)}的异常处理器处理并返回空，与Opt一致</p>
+ * @author LiYan
+ * @see Opt
+ */
+public final class OptDouble {
+
+    private static final SafeOperator SAFER = SaferManager.saferFor(Opt.class);
+
+    /**
+     * 空值单例 {@code empty()}.
+     */
+    private static final OptDouble EMPTY = new OptDouble();
+
+    private final boolean present;
+
+    private final double value;
+
+    private OptDouble() {
+        this.present = false;
+        this.value = 0;
+    }
+
+    private OptDouble(double value) {
+        this.present = true;
+        this.value = value;
+    }
+
+    /**
+     * 返回一个空的{@code OptDouble}实例。
+     */
+    public static OptDouble empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 返回描述指定值的{@code OptDouble}
+     */
+    public static OptDouble of(double value) {
+        return new OptDouble(value);
+    }
+
+    /**
+     * 返回描述指定值的{@code OptDouble}，如果值为null，则返回空{@code OptDouble}。
+     */
+    public static OptDouble of(Double value) {
+        return value == null ? EMPTY : of(value.doubleValue());
+    }
+
+    /**
+     * Return {@code true} if there is a value present, otherwise {@code false}.
+     */
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * 如果存在值，则使用值调用指定的consumer，否则不执行任何操作。
+     */
+    public OptDouble ifPresent(@Nonnull DoubleConsumer consumer) {
+        if (present) {
+            consumer.accept(value);
+        }
+        return this;
+    }
+
+    /**
+     * 如果不存在值，则调用指定的runnable，否则不执行任何操作。
+     */
+    public OptDouble ifAbsent(@Nonnull Runnable runnable) {
+        if (!present) {
+            runnable.run();
+        }
+        return this;
+    }
+
+    /**
+     * 如果存在值，并且值符合判断规则，返回当前{@code OptDouble}，否则返回空{@code OptDouble}。
+     */
+    public OptDouble filter(@Nonnull DoublePredicate predicate) {
+        if (!present) {
+            return this;
+        }
+        try {
+            return predicate.test(value) ? this : EMPTY;
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return EMPTY;
+    }
+
+    /**
+     * 如果存在值，并且值!不!符合判断规则，返回当前{@code OptDouble}，否则返回空{@code OptDouble}。
+     * @see #filter(DoublePredicate)
+     */
+    public OptDouble drop(@Nonnull DoublePredicate predicate) {
+        return filter(predicate.negate());
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptDouble}，否则返回空{@code OptDouble}
+     */
+    public OptDouble map(@Nonnull DoubleUnaryOperator mapper) {
+        return present ? of(mapper.applyAsDouble(value)) : EMPTY;
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptInt}，否则返回空{@code OptInt}
+     */
+    public OptInt mapToInt(@Nonnull DoubleToIntFunction mapper) {
+        return present ? OptInt.of(mapper.applyAsInt(value)) : OptInt.empty();
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptLong}，否则返回空{@code OptLong}
+     */
+    public OptLong mapToLong(@Nonnull DoubleToLongFunction mapper) {
+        return present ? OptLong.of(mapper.applyAsLong(value)) : OptLong.empty();
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code Opt}（结果为null时为空），否则返回空{@code Opt}
+     */
+    public <U> Opt<U> mapToObj(@Nonnull DoubleFunction<? extends U> mapper) {
+        return present ? Opt.of(mapper.apply(value)) : Opt.empty();
+    }
+
+    /**
+     * 转换为装箱的{@code Opt}
+     */
+    public Opt<Double> boxed() {
+        return present ? Opt.of(value) : Opt.empty();
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则返回{@code other}。
+     */
+    public double orElse(double other) {
+        return present ? value : other;
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则调用{@code other}并返回调用结果。
+     */
+    public double orElseGet(@Nonnull DoubleSupplier other) {
+        return present ? value : other.getAsDouble();
+    }
+
+    /**
+     * 返回当前{@code OptDouble}（如果值存在），否则返回other。
+     */
+    public OptDouble orUse(@Nonnull OptDouble other) {
+        return present ? this : other;
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则抛出提供的异常。
+     */
+    public <X extends Throwable> double orElseThrow(@Nonnull Supplier<? extends X> exceptionSupplier) throws X {
+        if (present) {
+            return value;
+        }
+        throw exceptionSupplier.get();
+    }
+
+    /**
+     * 返回当前{@code OptDouble}（如果值存在），否则抛出提供的异常。
+     */
+    public <X extends Throwable> OptDouble orThrow(@Nonnull Supplier<? extends X> exceptionSupplier) throws X {
+        if (present) {
+            return this;
+        }
+        throw exceptionSupplier.get();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OptDouble)) {
+            return false;
+        }
+        OptDouble other = (OptDouble) obj;
+        return present && other.present ? Double.compare(value, other.value) == 0 : present == other.present;
+    }
+
+    @Override
+    public int hashCode() {
+        return present ? Double.hashCode(value) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return present ? String.format("OptDouble[%s]", value) : "OptDouble.empty";
+    }
+
+}
@@ -0,0 +1,335 @@
+package pl.codesafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import pl.abstracts.functions.FunctionWithThrowable;
+import pl.abstracts.functions.SupplierWithThrowable;
+import pl.codesafe.SafeOperator.SaferManager;
+import pl.codesafe.exception.UnHandledException;
+
+/**
+ * 异步的{@link Opt}：在{@link CompletableFuture}上使用Opt的filter、map、orElse等方法，全程不阻塞线程
+ * <hr><pre>
+ * OptFuture&lt;User&gt; user = OptFuture.supplyAsync(() -> userService.query(id));
+ * OptFuture&lt;Account&gt; account = OptFuture.supplyAsync(() -> accountService.query(id));
+ * CompletableFuture&lt;String&gt; summary = user.filter(User::isActive)
+ *     .zip(account, (u, a) -> u.getName() + ": " + a.getBalance())
+ *     .orElse("unknown"); // 两次查询并发执行，任何一个为空或失败时得到"unknown"</pre>
+ * <hr>
+ * <li>值为null或者计算失败时结果为空，异常交给{@code SaferManager.saferFor(OptFuture.class)}的异常处理器处理</li>
+ * <li>异常处理器没有处理异常时，future以{@link UnHandledException}异常结束，与{@link SafeOperator#getAsync}一致，每个异常只会处理一次</li>
+ * <li>safeMap中的异常与{@link Opt#safeMap}一致，直接忽略</li>
+ * <li>每一步都在上一步完成的线程中执行，耗时的步骤请使用{@link #flatMap}交给执行器</li>
+ * @author LiYan
+ * @see Opt
+ */
+public final class OptFuture<T> {
+
+    private static final SafeOperator SAFER = SaferManager.saferFor(OptFuture.class);
+
+    private static final OptFuture<?> EMPTY = new OptFuture<>(CompletableFuture.completedFuture(Opt.empty()));
+
+    /**
+     * 失败已经转换为空的Opt；异常处理器没有处理的异常以{@link UnHandledException}结束，后续步骤不会再次处理
+     */
+    private final CompletableFuture<Opt<T>> future;
+
+    private OptFuture(CompletableFuture<Opt<T>> future) {
+        this.future = future;
+    }
+
+    /**
+     * 返回一个已经完成的空{@code OptFuture}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> OptFuture<T> empty() {
+        return (OptFuture<T>) EMPTY;
+    }
+
+    /**
+     * 返回一个已经完成的{@code OptFuture}，值为null时为空
+     */
+    public static <T> OptFuture<T> completed(T value) {
+        return value == null ? empty() : new OptFuture<>(CompletableFuture.completedFuture(Opt.of(value)));
+    }
+
+    /**
+     * 返回一个已经完成的{@code OptFuture}
+     */
+    public static <T> OptFuture<T> completed(@Nonnull Opt<T> opt) {
+        return new OptFuture<>(CompletableFuture.completedFuture(opt));
+    }
+
+    /**
+     * 包装一个future，future的结果为null或者异常结束时为空
+     * @param future 要包装的future，为null时返回空
+     */
+    public static <T> OptFuture<T> of(CompletableFuture<? extends T> future) {
+        if (future == null) {
+            return empty();
+        }
+        return new OptFuture<>(future.handle((value, t) -> {
+            if (t != null) {
+                handleException(t);
+                return Opt.empty();
+            }
+            return Opt.of(value);
+        }));
+    }
+
+    /**
+     * 在{@code SaferManager.saferFor(OptFuture.class)}的执行器中异步执行取值函数
+     * @param supplier 取值函数
+     * @see SaferManager#setSaferExecutor
+     */
+    public static <T, EX extends Throwable> OptFuture<T> supplyAsync(@Nonnull SupplierWithThrowable<T, EX> supplier) {
+        return supplyAsync(supplier, SAFER.executor);
+    }
+
+    /**
+     * 在指定的执行器中异步执行取值函数
+     * @param supplier 取值函数
+     * @param executor 执行器
+     */
+    public static <T, EX extends Throwable> OptFuture<T> supplyAsync(@Nonnull SupplierWithThrowable<T, EX> supplier,
+                                                                    @Nonnull Executor executor) {
+        try {
+            // 异常只在SAFER.get中处理一次，没有被处理的异常以UnHandledException结束
+            return new OptFuture<>(CompletableFuture.supplyAsync(() -> Opt.of(SAFER.get(supplier)), executor));
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return empty();
+    }
+
+    /* 组合 */
+
+    /**
+     * 两个都有值时合并，任何一个为空时为空
+     * @param a 第一个值
+     * @param b 第二个值
+     * @param combiner 合并函数，结果为null时为空
+     */
+    public static <A, B, R> OptFuture<R> zip(@Nonnull OptFuture<A> a, @Nonnull OptFuture<B> b,
+                                             @Nonnull BiFunction<? super A, ? super B, ? extends R> combiner) {
+        return new OptFuture<>(a.future.thenCombine(b.future, (oa, ob) -> {
+            if (!oa.isPresent() || !ob.isPresent()) {
+                return Opt.empty();
+            }
+            try {
+                return Opt.of(combiner.apply(oa.orNull(), ob.orNull()));
+            } catch (Throwable t) {
+                handleException(t);
+                return Opt.empty();
+            }
+        }));
+    }
+
+    /**
+     * 与另一个值合并，任何一个为空时为空
+     * @see #zip(OptFuture, OptFuture, BiFunction)
+     */
+    public <U, R> OptFuture<R> zip(@Nonnull OptFuture<U> other, @Nonnull BiFunction<? super T, ? super U, ? extends R> combiner) {
+        return zip(this, other, combiner);
+    }
+
+    /**
+     * 所有值都存在时得到按顺序排列的列表，任何一个为空时为空
+     * @param futures 要合并的值
+     */
+    public static <T> OptFuture<List<T>> allOf(@Nonnull Collection<OptFuture<T>> futures) {
+        List<CompletableFuture<Opt<T>>> list = unwrapAll(futures);
+        return new OptFuture<>(CompletableFuture.allOf(list.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<T> values = new ArrayList<>(list.size());
+            for (CompletableFuture<Opt<T>> f : list) {
+                Opt<T> opt = f.join();
+                if (!opt.isPresent()) {
+                    return Opt.empty();
+                }
+                values.add(opt.orNull());
+            }
+            return Opt.of(values);
+        }));
+    }
+
+    /**
+     * 等待所有值完成，得到其中存在的值（按顺序，跳过空值），适合扇出查询后聚合部分结果
+     * @param futures 要合并的值
+     */
+    public static <T> CompletableFuture<List<T>> collectPresent(@Nonnull Collection<OptFuture<T>> futures) {
+        List<CompletableFuture<Opt<T>>> list = unwrapAll(futures);
+        return CompletableFuture.allOf(list.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<T> values = new ArrayList<>(list.size());
+            for (CompletableFuture<Opt<T>> f : list) {
+                f.join().ifPresent(values::add);
+            }
+            return values;
+        });
+    }
+
+    /* 中间操作 */
+
+    /**
+     * @see Opt#filter(Predicate)
+     */
+    public OptFuture<T> filter(@Nonnull Predicate<? super T> predicate) {
+        return then(opt -> opt.isPresent() && predicate.test(opt.orNull()) ? opt : Opt.empty());
+    }
+
+    /**
+     * @see Opt#drop(Predicate)
+     */
+    public OptFuture<T> drop(@Nonnull Predicate<? super T> predicate) {
+        return filter(predicate.negate());
+    }
+
+    /**
+     * @see Opt#map(Function)
+     */
+    public <U> OptFuture<U> map(@Nonnull Function<? super T, ? extends U> mapper) {
+        return then(opt -> opt.map(mapper));
+    }
+
+    /**
+     * @see Opt#safeMap(FunctionWithThrowable)
+     */
+    public <U, EX extends Throwable> OptFuture<U> safeMap(@Nonnull FunctionWithThrowable<? super T, ? extends U, EX> mapper) {
+        return then(opt -> opt.safeMap(mapper));
+    }
+
+    /**
+     * @see Opt#mapOpt(Function)
+     */
+    public <U> OptFuture<U> mapOpt(@Nonnull Function<? super T, Opt<U>> mapper) {
+        return then(opt -> opt.mapOpt(mapper));
+    }
+
+    /**
+     * 有值时继续执行异步计算，不会阻塞
+     * @param mapper 返回下一个异步值的函数，返回null时为空
+     */
+    public <U> OptFuture<U> flatMap(@Nonnull Function<? super T, OptFuture<U>> mapper) {
+        return new OptFuture<>(future.thenCompose(opt -> {
+            if (!opt.isPresent()) {
+                return CompletableFuture.completedFuture(Opt.empty());
+            }
+            try {
+                OptFuture<U> next = mapper.apply(opt.orNull());
+                return next != null ? next.future : CompletableFuture.completedFuture(Opt.empty());
+            } catch (Throwable t) {
+                handleException(t);
+                return CompletableFuture.completedFuture(Opt.empty());
+            }
+        }));
+    }
+
+    /**
+     * 值存在时执行consumer，consumer中的异常交给异常处理器处理
+     */
+    public OptFuture<T> ifPresent(@Nonnull Consumer<? super T> consumer) {
+        return then(opt -> opt.ifPresent(consumer));
+    }
+
+    /**
+     * @see Opt#orUse(Opt)
+     */
+    public OptFuture<T> orUse(@Nonnull Opt<T> other) {
+        return then(opt -> opt.orUse(other));
+    }
+
+    /**
+     * 为空时使用另一个异步值
+     */
+    public OptFuture<T> orUse(@Nonnull OptFuture<T> other) {
+        return new OptFuture<>(future.thenCompose(opt -> opt.isPresent() ? CompletableFuture.completedFuture(opt) : other.future));
+    }
+
+    /* 结果 */
+
+    /**
+     * 为空时使用默认值
+     * @return 完成时得到值或默认值的future
+     */
+    public CompletableFuture<T> orElse(T other) {
+        return future.thenApply(opt -> opt.orElse(other));
+    }
+
+    /**
+     * @return 完成时得到值的future，为空时得到null
+     */
+    public CompletableFuture<T> orNull() {
+        return future.thenApply(Opt::orNull);
+    }
+
+    /**
+     * @return 完成时得到Opt的新future，与内部的future（包括共享的空OptFuture）相互独立，调用complete、cancel等方法不会影响当前OptFuture
+     */
+    public CompletableFuture<Opt<T>> toFuture() {
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * 阻塞等待结果，只应在不能异步的边界（比如main方法、测试）中使用
+     * @return 结果；future被取消或异常结束时，异常交给异常处理器处理并返回空，已经处理过的UnHandledException直接抛出
+     */
+    public Opt<T> join() {
+        try {
+            return future.join();
+        } catch (Throwable t) {
+            handleException(t);
+            return Opt.empty();
+        }
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    private <U> OptFuture<U> then(FunctionWithThrowable<Opt<T>, Opt<U>, ?> step) {
+        return new OptFuture<>(future.thenApply(opt -> {
+            try {
+                return Objects.requireNonNull(step.apply(opt));
+            } catch (Throwable t) {
+                handleException(t);
+                return Opt.empty();
+            }
+        }));
+    }
+
+    private static <T> List<CompletableFuture<Opt<T>>> unwrapAll(Collection<OptFuture<T>> futures) {
+        List<CompletableFuture<Opt<T>>> list = new ArrayList<>(futures.size());
+        for (OptFuture<T> f : futures) {
+            list.add(f != null ? f.future : CompletableFuture.completedFuture(Opt.empty()));
+        }
+        return list;
+    }
+
+    /**
+     * 交给异常处理器处理；已经被异常处理器处理过的UnHandledException直接抛出，不会重复处理
+     */
+    private static void handleException(Throwable t) {
+        if (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof UnHandledException) {
+            throw (UnHandledException) t;
+        }
+        SAFER.handleException(t);
+    }
+
+    @Override
+    public String toString() {
+        return future.isDone() && !future.isCompletedExceptionally() ? "OptFuture" + future.join() : "OptFuture.pending";
+    }
+
+}
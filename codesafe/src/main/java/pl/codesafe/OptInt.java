@@ -0,0 +1,229 @@
+package pl.codesafe;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import pl.codesafe.SafeOperator.SaferManager;
+
+/**
+ * 基本类型int的{@link Opt}，API与Opt一致，存取都不会装箱
+ * <hr><pre>
+ * ParseUtils.optInt("-1").filter(v -> v > 0).orElse(0); // 全程不装箱</pre>
+ * <hr>
+ * <p>filter、drop中的异常会交给{@code SaferManager.saferFor(Opt.class)}的异常处理器处理并返回空，与Opt一致</p>
+ * @author LiYan
+ * @see Opt
+ */
+public final class OptInt {
+
+    private static final SafeOperator SAFER = SaferManager.saferFor(Opt.class);
+
+    /**
+     * 空值单例 {@code empty()}.
+     */
+    private static final OptInt EMPTY = new OptInt();
+
+    private final boolean present;
+
+    private final int value;
+
+    private OptInt() {
+        this.present = false;
+        this.value = 0;
+    }
+
+    private OptInt(int value) {
+        this.present = true;
+        this.value = value;
+    }
+
+    /**
+     * 返回一个空的{@code OptInt}实例。
+     */
+    public static OptInt empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 返回描述指定值的{@code OptInt}，[-128, 127]范围内的值复用缓存的实例
+     */
+    public static OptInt of(int value) {
+        return value >= -128 && value <= 127 ? Cache.VALUES[value + 128] : new OptInt(value);
+    }
+
+    /**
+     * 返回描述指定值的{@code OptInt}，如果值为null，则返回空{@code OptInt}。
+     */
+    public static OptInt of(Integer value) {
+        return value == null ? EMPTY : of(value.intValue());
+    }
+
+    /**
+     * Return {@code true} if there is a value present, otherwise {@code false}.
+     */
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * 如果存在值，则使用值调用指定的consumer，否则不执行任何操作。
+     */
+    public OptInt ifPresent(@Nonnull IntConsumer consumer) {
+        if (present) {
+            consumer.accept(value);
+        }
+        return this;
+    }
+
+    /**
+     * 如果不存在值，则调用指定的runnable，否则不执行任何操作。
+     */
+    public OptInt ifAbsent(@Nonnull Runnable runnable) {
+        if (!present) {
+            runnable.run();
+        }
+        return this;
+    }
+
+    /**
+     * 如果存在值，并且值符合判断规则，返回当前{@code OptInt}，否则返回空{@code OptInt}。
+     */
+    public OptInt filter(@Nonnull IntPredicate predicate) {
+        if (!present) {
+            return this;
+        }
+        try {
+            return predicate.test(value) ? this : EMPTY;
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return EMPTY;
+    }
+
+    /**
+     * 如果存在值，并且值!不!符合判断规则，返回当前{@code OptInt}，否则返回空{@code OptInt}。
+     * @see #filter(IntPredicate)
+     */
+    public OptInt drop(@Nonnull IntPredicate predicate) {
+        return filter(predicate.negate());
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptInt}，否则返回空{@code OptInt}
+     */
+    public OptInt map(@Nonnull IntUnaryOperator mapper) {
+        return present ? of(mapper.applyAsInt(value)) : EMPTY;
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptLong}，否则返回空{@code OptLong}
+     */
+    public OptLong mapToLong(@Nonnull IntToLongFunction mapper) {
+        return present ? OptLong.of(mapper.applyAsLong(value)) : OptLong.empty();
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptDouble}，否则返回空{@code OptDouble}
+     */
+    public OptDouble mapToDouble(@Nonnull IntToDoubleFunction mapper) {
+        return present ? OptDouble.of(mapper.applyAsDouble(value)) : OptDouble.empty();
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code Opt}（结果为null时为空），否则返回空{@code Opt}
+     */
+    public <U> Opt<U> mapToObj(@Nonnull IntFunction<? extends U> mapper) {
+        return present ? Opt.of(mapper.apply(value)) : Opt.empty();
+    }
+
+    /**
+     * 转换为装箱的{@code Opt}
+     */
+    public Opt<Integer> boxed() {
+        return present ? Opt.of(value) : Opt.empty();
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则返回{@code other}。
+     */
+    public int orElse(int other) {
+        return present ? value : other;
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则调用{@code other}并返回调用结果。
+     */
+    public int orElseGet(@Nonnull IntSupplier other) {
+        return present ? value : other.getAsInt();
+    }
+
+    /**
+     * 返回当前{@code OptInt}（如果值存在），否则返回other。
+     */
+    public OptInt orUse(@Nonnull OptInt other) {
+        return present ? this : other;
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则抛出提供的异常。
+     */
+    public <X extends Throwable> int orElseThrow(@Nonnull Supplier<? extends X> exceptionSupplier) throws X {
+        if (present) {
+            return value;
+        }
+        throw exceptionSupplier.get();
+    }
+
+    /**
+     * 返回当前{@code OptInt}（如果值存在），否则抛出提供的异常。
+     */
+    public <X extends Throwable> OptInt orThrow(@Nonnull Supplier<? extends X> exceptionSupplier) throws X {
+        if (present) {
+            return this;
+        }
+        throw exceptionSupplier.get();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OptInt)) {
+            return false;
+        }
+        OptInt other = (OptInt) obj;
+        return present && other.present ? value == other.value : present == other.present;
+    }
+
+    @Override
+    public int hashCode() {
+        return present ? Integer.hashCode(value) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return present ? String.format("OptInt[%s]", value) : "OptInt.empty";
+    }
+
+    /**
+     * [-128, 127]范围内的实例缓存，第一次使用时才初始化
+     */
+    private static final class Cache {
+
+        static final OptInt[] VALUES = new OptInt[256];
+
+        static {
+            for (int i = 0; i < VALUES.length; i++) {
+                VALUES[i] = new OptInt(i - 128);
+            }
+        }
+    }
+
+}
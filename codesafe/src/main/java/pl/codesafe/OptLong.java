@@ -0,0 +1,229 @@
+package pl.codesafe;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import pl.codesafe.SafeOperator.SaferManager;
+
+/**
+ * 基本类型long的{@link Opt}，API与Opt一致，存取都不会装箱
+ * <hr><pre>
+ * ParseUtils.optLong("-1").filter(v -> v > 0).orElse(0); // 全程不装箱</pre>
+ * <hr>
+ * <p>filter、drop中的异常会交给{@code SaferManager.saferFor(Opt.class)}的异常处理器处理并返回空，与Opt一致</p>
+ * @author LiYan
+ * @see Opt
+ */
+public final class OptLong {
+
+    private static final SafeOperator SAFER = SaferManager.saferFor(Opt.class);
+
+    /**
+     * 空值单例 {@code empty()}.
+     */
+    private static final OptLong EMPTY = new OptLong();
+
+    private final boolean present;
+
+    private final long value;
+
+    private OptLong() {
+        this.present = false;
+        this.value = 0;
+    }
+
+    private OptLong(long value) {
+        this.present = true;
+        this.value = value;
+    }
+
+    /**
+     * 返回一个空的{@code OptLong}实例。
+     */
+    public static OptLong empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 返回描述指定值的{@code OptLong}，[-128, 127]范围内的值复用缓存的实例
+     */
+    public static OptLong of(long value) {
+        return value >= -128 && value <= 127 ? Cache.VALUES[(int) value + 128] : new OptLong(value);
+    }
+
+    /**
+     * 返回描述指定值的{@code OptLong}，如果值为null，则返回空{@code OptLong}。
+     */
+    public static OptLong of(Long value) {
+        return value == null ? EMPTY : of(value.longValue());
+    }
+
+    /**
+     * Return {@code true} if there is a value present, otherwise {@code false}.
+     */
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * 如果存在值，则使用值调用指定的consumer，否则不执行任何操作。
+     */
+    public OptLong ifPresent(@Nonnull LongConsumer consumer) {
+        if (present) {
+            consumer.accept(value);
+        }
+        return this;
+    }
+
+    /**
+     * 如果不存在值，则调用指定的runnable，否则不执行任何操作。
+     */
+    public OptLong ifAbsent(@Nonnull Runnable runnable) {
+        if (!present) {
+            runnable.run();
+        }
+        return this;
+    }
+
+    /**
+     * 如果存在值，并且值符合判断规则，返回当前{@code OptLong}，否则返回空{@code OptLong}。
+     */
+    public OptLong filter(@Nonnull LongPredicate predicate) {
+        if (!present) {
+            return this;
+        }
+        try {
+            return predicate.test(value) ? this : EMPTY;
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return EMPTY;
+    }
+
+    /**
+     * 如果存在值，并且值!不!符合判断规则，返回当前{@code OptLong}，否则返回空{@code OptLong}。
+     * @see #filter(LongPredicate)
+     */
+    public OptLong drop(@Nonnull LongPredicate predicate) {
+        return filter(predicate.negate());
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptLong}，否则返回空{@code OptLong}
+     */
+    public OptLong map(@Nonnull LongUnaryOperator mapper) {
+        return present ? of(mapper.applyAsLong(value)) : EMPTY;
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptInt}，否则返回空{@code OptInt}
+     */
+    public OptInt mapToInt(@Nonnull LongToIntFunction mapper) {
+        return present ? OptInt.of(mapper.applyAsInt(value)) : OptInt.empty();
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code OptDouble}，否则返回空{@code OptDouble}
+     */
+    public OptDouble mapToDouble(@Nonnull LongToDoubleFunction mapper) {
+        return present ? OptDouble.of(mapper.applyAsDouble(value)) : OptDouble.empty();
+    }
+
+    /**
+     * 如果存在值，则将映射函数应用于该值，返回描述结果的{@code Opt}（结果为null时为空），否则返回空{@code Opt}
+     */
+    public <U> Opt<U> mapToObj(@Nonnull LongFunction<? extends U> mapper) {
+        return present ? Opt.of(mapper.apply(value)) : Opt.empty();
+    }
+
+    /**
+     * 转换为装箱的{@code Opt}
+     */
+    public Opt<Long> boxed() {
+        return present ? Opt.of(value) : Opt.empty();
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则返回{@code other}。
+     */
+    public long orElse(long other) {
+        return present ? value : other;
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则调用{@code other}并返回调用结果。
+     */
+    public long orElseGet(@Nonnull LongSupplier other) {
+        return present ? value : other.getAsLong();
+    }
+
+    /**
+     * 返回当前{@code OptLong}（如果值存在），否则返回other。
+     */
+    public OptLong orUse(@Nonnull OptLong other) {
+        return present ? this : other;
+    }
+
+    /**
+     * 返回包含的值（如果存在），否则抛出提供的异常。
+     */
+    public <X extends Throwable> long orElseThrow(@Nonnull Supplier<? extends X> exceptionSupplier) throws X {
+        if (present) {
+            return value;
+        }
+        throw exceptionSupplier.get();
+    }
+
+    /**
+     * 返回当前{@code OptLong}（如果值存在），否则抛出提供的异常。
+     */
+    public <X extends Throwable> OptLong orThrow(@Nonnull Supplier<? extends X> exceptionSupplier) throws X {
+        if (present) {
+            return this;
+        }
+        throw exceptionSupplier.get();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OptLong)) {
+            return false;
+        }
+        OptLong other = (OptLong) obj;
+        return present && other.present ? value == other.value : present == other.present;
+    }
+
+    @Override
+    public int hashCode() {
+        return present ? Long.hashCode(value) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return present ? String.format("OptLong[%s]", value) : "OptLong.empty";
+    }
+
+    /**
+     * [-128, 127]范围内的实例缓存，第一次使用时才初始化
+     */
+    private static final class Cache {
+
+        static final OptLong[] VALUES = new OptLong[256];
+
+        static {
+            for (int i = 0; i < VALUES.length; i++) {
+                VALUES[i] = new OptLong(i - 128);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,284 @@
+package pl.codesafe;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import javax.annotation.Nonnull;
+import pl.codesafe.SafeOperator.SaferManager;
+
+/**
+ * 可为空的long列：值存储在long[]中，是否有值存储在有效位图中，相当于一列{@link OptLong}但不为每个元素创建对象
+ * <hr><pre>
+ * OptLongColumn column = ParseUtils.parseLongColumn(rows); // 解析失败或为空的行无效
+ * column.filter(v -> v > 0).sum(); // 所有有效且大于0的值之和
+ * column.parallel().map(v -> v * 2).orElse(0L); // 并行计算，无效行填充0L</pre>
+ * <hr>
+ * <p>不可变，filter只生成新的位图，map只生成新的值数组，另一部分与原列共享</p>
+ * <p>filter中的异常会交给{@code SaferManager.saferFor(Opt.class)}的异常处理器处理，该行视为无效，与Opt一致</p>
+ * <p>{@link #parallel()}之后的操作在数据量足够大时会按64行对齐分片，使用ForkJoin公共池并行执行</p>
+ * @author LiYan
+ * @see OptLong
+ */
+public final class OptLongColumn {
+
+    private static final SafeOperator SAFER = SaferManager.saferFor(Opt.class);
+
+    private final long[] values;
+
+    private final long[] validity;
+
+    private final int size;
+
+    private final boolean parallel;
+
+    private OptLongColumn(long[] values, long[] validity, boolean parallel) {
+        this.values = values;
+        this.validity = validity;
+        this.size = values.length;
+        this.parallel = parallel;
+    }
+
+    /**
+     * 所有行都有效的列，直接使用传入的数组，不会复制，构造后不要再修改该数组
+     * @param values 值
+     * @return 列
+     */
+    public static OptLongColumn of(@Nonnull long[] values) {
+        return new OptLongColumn(values, ColumnSupport.allValid(values.length), false);
+    }
+
+    /**
+     * 指定有效位图的列，直接使用传入的值数组，不会复制，构造后不要再修改该数组
+     * @param values 值
+     * @param validity 有效位图（{@link BitSet#toLongArray()}的格式），第i位为1表示第i行有效
+     * @return 列
+     */
+    public static OptLongColumn of(@Nonnull long[] values, @Nonnull long[] validity) {
+        return new OptLongColumn(values, ColumnSupport.alignValidity(validity, values.length), false);
+    }
+
+    /**
+     * 指定有效位图的列，直接使用传入的值数组，不会复制，构造后不要再修改该数组
+     * @param values 值
+     * @param validity 有效位图，第i位为1表示第i行有效
+     * @return 列
+     */
+    public static OptLongColumn of(@Nonnull long[] values, @Nonnull BitSet validity) {
+        return of(values, validity.toLongArray());
+    }
+
+    /**
+     * 由装箱数组构造，null视为无效
+     */
+    public static OptLongColumn ofBoxed(Long[] values) {
+        if (values == null) {
+            return of(new long[0]);
+        }
+        long[] unboxed = new long[values.length];
+        long[] validity = new long[ColumnSupport.wordCount(values.length)];
+        for (int i = 0; i < values.length; i++) {
+            Long value = values[i];
+            if (value != null) {
+                unboxed[i] = value;
+                validity[i >>> 6] |= 1L << i;
+            }
+        }
+        return new OptLongColumn(unboxed, validity, false);
+    }
+
+    /**
+     * 由装箱集合构造，null视为无效，比如{@code OptLongColumn.ofBoxed(Safer.validStream(list).map(...).collect(toList()))}
+     */
+    public static OptLongColumn ofBoxed(Collection<? extends Long> values) {
+        return ofBoxed(values == null ? null : values.toArray(new Long[0]));
+    }
+
+    /**
+     * 返回之后的操作允许并行执行的列（与当前列共享数据）
+     */
+    public OptLongColumn parallel() {
+        return parallel ? this : new OptLongColumn(values, validity, true);
+    }
+
+    /**
+     * 返回之后的操作顺序执行的列（与当前列共享数据）
+     */
+    public OptLongColumn sequential() {
+        return parallel ? new OptLongColumn(values, validity, false) : this;
+    }
+
+    /**
+     * 行数（包括无效行）
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 第i行是否有效
+     */
+    public boolean isPresent(int index) {
+        checkIndex(index);
+        return ColumnSupport.isSet(validity, index);
+    }
+
+    /**
+     * 第i行的值
+     */
+    public OptLong get(int index) {
+        checkIndex(index);
+        return ColumnSupport.isSet(validity, index) ? OptLong.of(values[index]) : OptLong.empty();
+    }
+
+    /**
+     * 有效行的数量
+     */
+    public int count() {
+        return ColumnSupport.cardinality(validity);
+    }
+
+    /**
+     * 有效位图的副本
+     */
+    public BitSet validity() {
+        return BitSet.valueOf(validity);
+    }
+
+    /**
+     * 保留有效且符合判断规则的行，其余行变为无效
+     */
+    public OptLongColumn filter(@Nonnull LongPredicate predicate) {
+        long[] result = new long[validity.length];
+        ColumnSupport.forEachChunk(validity.length, parallel, (from, to) -> {
+            for (int w = from; w < to; w++) {
+                long bits = validity[w];
+                long kept = 0;
+                while (bits != 0) {
+                    long lowest = bits & -bits;
+                    int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (test(predicate, values[i])) {
+                        kept |= lowest;
+                    }
+                    bits ^= lowest;
+                }
+                result[w] = kept;
+            }
+        });
+        return new OptLongColumn(values, result, parallel);
+    }
+
+    /**
+     * 保留有效且!不!符合判断规则的行，其余行变为无效
+     * @see #filter(LongPredicate)
+     */
+    public OptLongColumn drop(@Nonnull LongPredicate predicate) {
+        return filter(predicate.negate());
+    }
+
+    /**
+     * 对每个有效行应用映射函数，无效行保持无效
+     */
+    public OptLongColumn map(@Nonnull LongUnaryOperator mapper) {
+        long[] result = new long[size];
+        ColumnSupport.forEachChunk(validity.length, parallel, (from, to) -> {
+            for (int w = from; w < to; w++) {
+                long bits = validity[w];
+                int base = w << 6;
+                if (bits == -1L) {
+                    for (int i = base; i < base + 64; i++) {
+                        result[i] = mapper.applyAsLong(values[i]);
+                    }
+                    continue;
+                }
+                while (bits != 0) {
+                    int i = base + Long.numberOfTrailingZeros(bits);
+                    result[i] = mapper.applyAsLong(values[i]);
+                    bits &= bits - 1;
+                }
+            }
+        });
+        return new OptLongColumn(result, validity, parallel);
+    }
+
+    /**
+     * 转为普通数组，无效行填充{@code other}
+     */
+    public long[] orElse(long other) {
+        long[] result = new long[size];
+        ColumnSupport.forEachChunk(validity.length, parallel, (from, to) -> {
+            for (int w = from; w < to; w++) {
+                long bits = validity[w];
+                int base = w << 6;
+                int end = Math.min(size, base + 64);
+                for (int i = base; i < end; i++) {
+                    result[i] = (bits & (1L << i)) != 0 ? values[i] : other;
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 所有有效行的和
+     */
+    public long sum() {
+        if (!ColumnSupport.useParallel(validity.length, parallel)) {
+            return sum(0, validity.length);
+        }
+        int chunks = (validity.length + ColumnSupport.CHUNK_WORDS - 1) / ColumnSupport.CHUNK_WORDS;
+        return IntStream.range(0, chunks).parallel()
+            .mapToLong(c -> sum(c * ColumnSupport.CHUNK_WORDS, Math.min(validity.length, (c + 1) * ColumnSupport.CHUNK_WORDS)))
+            .sum();
+    }
+
+    private long sum(int fromWord, int toWord) {
+        long sum = 0;
+        for (int w = fromWord; w < toWord; w++) {
+            long bits = validity[w];
+            int base = w << 6;
+            if (bits == -1L) {
+                for (int i = base; i < base + 64; i++) {
+                    sum += values[i];
+                }
+                continue;
+            }
+            while (bits != 0) {
+                sum += values[base + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 有效行的值组成的流，与{@link Safer#validStream}一样只包含有效值
+     */
+    public LongStream stream() {
+        IntStream indexes = IntStream.range(0, size).filter(i -> ColumnSupport.isSet(validity, i));
+        return (parallel ? indexes.parallel() : indexes).mapToLong(i -> values[i]);
+    }
+
+    private static boolean test(LongPredicate predicate, long value) {
+        try {
+            return predicate.test(value);
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return false;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OptLongColumn[size=%d, present=%d]", size, count());
+    }
+
+}
@@ -1,7 +1,7 @@
 package pl.codesafe;
 
-import com.sun.istack.internal.Nullable;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -11,10 +11,23 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import pl.abstracts.functions.FunctionWithThrowable;
 import pl.abstracts.functions.RunnableWithThrowable;
 import pl.abstracts.functions.SupplierWithThrowable;
+import pl.codesafe.concurrent.AdaptiveLimiter;
+import pl.codesafe.concurrent.Bulkhead;
+import pl.codesafe.concurrent.ConcurrencyLimiter;
+import pl.codesafe.concurrent.Hedger;
+import pl.codesafe.concurrent.SingleFlight;
 import pl.codesafe.exception.SafeExceptionHandler;
 import pl.codesafe.exception.UnHandledException;
 import pl.codesafe.util.CheckUtils;
@@ -57,6 +70,27 @@ import pl.codesafe.util.ParseUtils;
  *     safer.parseList("[1,2,3}", Integer.class); // 因为jsonArray的结构错误，解析失败，返回new ArrayList&lt;Integer&gt;()
  * 支持常用类型的解析</pre>
  * <hr><pre>
+ * 合并相同的并发请求，缓存失效时不会让N个相同的查询同时打到下游
+ *     safer.getCoalesced("user:" + id, () -> userDao.query(id));</pre>
+ * <hr><pre>
+ * 对冲请求，首次调用迟迟不返回时再发起一次，取最先成功的结果，用于降低p99
+ *     safer.getHedged(() -> replicaClient.read(key), Duration.ofMillis(20), 1);</pre>
+ * <hr><pre>
+ * 延迟取值，线程安全，最多成功执行一次，初始化后读取不加锁
+ *     Lazy&lt;Client&gt; client = safer.lazy(() -> Client.connect(config));
+ *     client.get(); // 第一次调用时才创建</pre>
+ * <hr><pre>
+ * async系列，异步执行，失败时同样交给异常处理器，future以null完成而不是异常完成
+ *     safer.getAsync(() -> userService.query(id)); // CompletableFuture，失败时得到null
+ *     safer.mapAsync(ids, id -> userService.query(id)); // 并发查询，失败的元素为null
+ * 执行器可以通过{@linkplain SaferManager#setSaferExecutor(Class, Executor) SaferManager.setSaferExecutor}替换</pre>
+ * <hr><pre>
+ * 舱壁，限制某个safer同时进行的调用数量，超出限制时返回默认值 {一个下游慢了，不能把大家都拖下水}
+ *     SaferManager.setSaferBulkhead(UserClient.class, Bulkhead.of(10, 20, 50));
+ *     safer.getList(() -> userClient.query(ids)); // 被拒绝时返回new ArrayList()
+ * 也可以使用根据耗时和失败率自动调整上限的{@link AdaptiveLimiter}
+ *     SaferManager.setSaferLimiter(PriceClient.class, AdaptiveLimiter.of());</pre>
+ * <hr><pre>
  * stream系列 {safer起手，天下我有}
  *     List&lt;String&gt; list = null;
  *     safer.stream(list); // 返回Stream.empty();
@@ -73,7 +107,29 @@ public class SafeOperator {
     SafeOperator() {
     }
 
-    final List<SafeExceptionHandler> exceptionHandlers = new ArrayList<>();
+    final List<SafeExceptionHandler> exceptionHandlers = new CopyOnWriteArrayList<>();
+
+    /**
+     * 异步系列方法使用的执行器
+     */
+    volatile Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * 限制get、execute系列并发数的限制器，为null时不限制
+     */
+    @Nullable
+    volatile ConcurrencyLimiter limiter;
+
+    /**
+     * 用于合并getCoalesced的并发调用
+     */
+    final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * getHedged使用的对冲器，记录调用耗时并控制对冲预算，为null时在第一次使用时创建默认的对冲器
+     */
+    @Nullable
+    volatile Hedger hedger;
 
     public void handleException(Throwable ex) {
         for (SafeExceptionHandler handler : exceptionHandlers) {
@@ -86,9 +142,31 @@ public class SafeOperator {
 
     /**
      * 安全执行某个函数，忽略其中所有异常
+     * <p>配置了并发限制时，被拒绝的调用不会执行</p>
      * @param runnable 执行函数
      */
     public <EX extends Throwable> void execute(@Nonnull RunnableWithThrowable<EX> runnable) {
+        ConcurrencyLimiter limiter = this.limiter;
+        if (limiter == null) {
+            doExecute(runnable);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            runnable.run();
+        } catch (Throwable t) {
+            // 耗时只统计执行函数本身，不包含异常处理器
+            limiter.release(System.nanoTime() - start, false);
+            handleException(t);
+            return;
+        }
+        limiter.release(System.nanoTime() - start, true);
+    }
+
+    private <EX extends Throwable> void doExecute(RunnableWithThrowable<EX> runnable) {
         try {
             runnable.run();
         } catch (Throwable t) {
@@ -100,10 +178,33 @@ public class SafeOperator {
      * 安全执行某个取值函数，忽略其中所有异常，返回执行得到的值，失败时返回null
      * @param supplier 取值函数
      * @param <T> 执行函数的返回值类型
-     * @return 执行函数的返回值，执行失败时返回null
+     * @return 执行函数的返回值，执行失败或被并发限制拒绝时返回null
      */
     @Nullable
     public <T, EX extends Throwable> T get(@Nonnull SupplierWithThrowable<T, EX> supplier) {
+        ConcurrencyLimiter limiter = this.limiter;
+        if (limiter == null) {
+            return doGet(supplier);
+        }
+        if (!limiter.tryAcquire()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = supplier.get();
+        } catch (Throwable t) {
+            // 耗时只统计取值函数本身，不包含异常处理器
+            limiter.release(System.nanoTime() - start, false);
+            handleException(t);
+            return null;
+        }
+        limiter.release(System.nanoTime() - start, true);
+        return value;
+    }
+
+    @Nullable
+    private <T, EX extends Throwable> T doGet(SupplierWithThrowable<T, EX> supplier) {
         try {
             return supplier.get();
         } catch (Throwable t) {
@@ -112,6 +213,198 @@ public class SafeOperator {
         return null;
     }
 
+    /**
+     * 安全执行某个取值函数，并合并相同key的并发调用：同一时刻同一个key只有一个调用者真正执行取值函数，其他调用者等待并共享它的结果
+     * <p>异常只会交给异常处理器处理一次，如果处理器最终抛出了异常，所有等待中的调用者都会抛出该异常</p>
+     * <p>不会缓存结果，执行结束后的调用会重新执行</p>
+     * <p>等待时被中断会恢复中断标记，并把InterruptedException交给异常处理器</p>
+     * @param key 用于合并调用的key，需要正确实现equals和hashCode
+     * @param supplier 取值函数
+     * @param <T> 执行函数的返回值类型
+     * @return 执行函数的返回值，执行失败时返回null
+     */
+    @Nullable
+    public <T, EX extends Throwable> T getCoalesced(@Nonnull Object key, @Nonnull SupplierWithThrowable<T, EX> supplier) {
+        try {
+            return singleFlight.execute(key, () -> get(supplier));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleException(e);
+        }
+        return null;
+    }
+
+    /**
+     * 以对冲请求的方式安全执行某个取值函数，忽略其中所有异常
+     * <p>首次调用超过{@code hedgeDelay}没有返回时，再发起一次相同的调用，最多发起{@code maxHedges}次，
+     * 返回最先成功的结果并取消其余调用；对冲调用的数量受{@link Hedger}的预算限制</p>
+     * <p>会发起对冲时，所有调用都在该safer的执行器中执行，否则直接在调用者线程中执行；只适合幂等的取值函数</p>
+     * @param supplier 取值函数
+     * @param hedgeDelay 多久没有返回时发起下一次对冲，为null时取最近调用耗时的p95
+     * @param maxHedges 最多发起多少次对冲调用
+     * @param <T> 执行函数的返回值类型
+     * @return 最先成功的返回值，全部失败时返回null
+     * @see Hedger
+     */
+    @Nullable
+    public <T, EX extends Throwable> T getHedged(@Nonnull SupplierWithThrowable<T, EX> supplier, @Nullable Duration hedgeDelay,
+                                                 int maxHedges) {
+        try {
+            return hedger().execute(supplier, executor, hedgeDelay != null ? hedgeDelay.toNanos() : -1, maxHedges, limiter);
+        } catch (Throwable t) {
+            if (t instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            handleException(t);
+        }
+        return null;
+    }
+
+    /**
+     * 以对冲请求的方式安全执行某个取值函数，等待时间取最近调用耗时的p95
+     * @param supplier 取值函数
+     * @param maxHedges 最多发起多少次对冲调用
+     * @param <T> 执行函数的返回值类型
+     * @return 最先成功的返回值，全部失败时返回null
+     * @see #getHedged(SupplierWithThrowable, Duration, int)
+     */
+    @Nullable
+    public <T, EX extends Throwable> T getHedged(@Nonnull SupplierWithThrowable<T, EX> supplier, int maxHedges) {
+        return getHedged(supplier, null, maxHedges);
+    }
+
+    private Hedger hedger() {
+        Hedger h = hedger;
+        if (h == null) {
+            synchronized (this) {
+                h = hedger;
+                if (h == null) {
+                    hedger = h = Hedger.of();
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * 构造一个延迟取值，第一次调用{@link Lazy#get()}时才执行取值函数，取值失败后下次调用会重试
+     * @param supplier 取值函数
+     * @param <T> 取值函数的返回值类型
+     * @return 延迟取值
+     * @see Lazy
+     */
+    public <T, EX extends Throwable> Lazy<T> lazy(@Nonnull SupplierWithThrowable<? extends T, EX> supplier) {
+        return lazy(supplier, false);
+    }
+
+    /**
+     * 构造一个延迟取值，第一次调用{@link Lazy#get()}时才执行取值函数，取值失败时的异常交给该safer的异常处理器处理
+     * @param supplier 取值函数
+     * @param cacheFailure 取值失败时是否缓存失败：true则之后一直返回null，false则下次调用时重试
+     * @param <T> 取值函数的返回值类型
+     * @return 延迟取值
+     * @see Lazy
+     */
+    public <T, EX extends Throwable> Lazy<T> lazy(@Nonnull SupplierWithThrowable<? extends T, EX> supplier, boolean cacheFailure) {
+        return new Lazy<>(this, Objects.requireNonNull(supplier), cacheFailure);
+    }
+
+    /**
+     * 异步系列方法使用的执行器
+     * @see SaferManager#setSaferExecutor(Class, Executor)
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 异步安全执行某个函数，忽略其中所有异常
+     * @param runnable 执行函数
+     * @return 执行结束（无论成功与否）时完成的future
+     */
+    public <EX extends Throwable> CompletableFuture<Void> executeAsync(@Nonnull RunnableWithThrowable<EX> runnable) {
+        return executeAsync(runnable, executor);
+    }
+
+    /**
+     * 使用指定的执行器异步安全执行某个函数，忽略其中所有异常
+     * @param runnable 执行函数
+     * @param executor 执行器
+     * @return 执行结束（无论成功与否）时完成的future
+     */
+    public <EX extends Throwable> CompletableFuture<Void> executeAsync(@Nonnull RunnableWithThrowable<EX> runnable,
+                                                                        @Nonnull Executor executor) {
+        try {
+            return CompletableFuture.runAsync(() -> execute(runnable), executor);
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 异步安全执行某个取值函数，忽略其中所有异常
+     * @param supplier 取值函数
+     * @param <T> 执行函数的返回值类型
+     * @return 以执行函数的返回值完成的future，执行失败时以null完成
+     */
+    public <T, EX extends Throwable> CompletableFuture<T> getAsync(@Nonnull SupplierWithThrowable<T, EX> supplier) {
+        return getAsync(supplier, executor);
+    }
+
+    /**
+     * 使用指定的执行器异步安全执行某个取值函数，忽略其中所有异常
+     * @param supplier 取值函数
+     * @param executor 执行器
+     * @param <T> 执行函数的返回值类型
+     * @return 以执行函数的返回值完成的future，执行失败时以null完成
+     */
+    public <T, EX extends Throwable> CompletableFuture<T> getAsync(@Nonnull SupplierWithThrowable<T, EX> supplier,
+                                                                   @Nonnull Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(() -> get(supplier), executor);
+        } catch (Throwable t) {
+            handleException(t);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 对集合中的每个元素并发执行映射函数，忽略其中所有异常
+     * @param values 要映射的元素
+     * @param mapper 映射函数
+     * @param <T> 元素类型
+     * @param <R> 映射结果类型
+     * @return 所有元素映射结束时完成的future，结果与输入一一对应，映射失败的元素为null；集合为null时以空列表完成
+     */
+    public <T, R, EX extends Throwable> CompletableFuture<List<R>> mapAsync(Collection<T> values,
+                                                                           @Nonnull FunctionWithThrowable<? super T, ? extends R, EX> mapper) {
+        return mapAsync(values, mapper, executor);
+    }
+
+    /**
+     * 使用指定的执行器对集合中的每个元素并发执行映射函数，忽略其中所有异常
+     * @param values 要映射的元素
+     * @param mapper 映射函数
+     * @param executor 执行器
+     * @param <T> 元素类型
+     * @param <R> 映射结果类型
+     * @return 所有元素映射结束时完成的future，结果与输入一一对应，映射失败的元素为null；集合为null时以空列表完成
+     */
+    public <T, R, EX extends Throwable> CompletableFuture<List<R>> mapAsync(Collection<T> values,
+                                                                           @Nonnull FunctionWithThrowable<? super T, ? extends R, EX> mapper,
+                                                                           @Nonnull Executor executor) {
+        if (values == null || values.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(values.size());
+        for (T value : values) {
+            futures.add(getAsync(() -> mapper.apply(value), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
     /* 常用类型的null ensure */
 
     public boolean ensure(Boolean value) {
@@ -280,7 +573,7 @@ public class SafeOperator {
      */
     public static class SaferManager {
 
-        private static final Map<Class<?>, SafeOperator> SAFER_MAP = new HashMap<>();
+        private static final Map<Class<?>, SafeOperator> SAFER_MAP = new ConcurrentHashMap<>();
 
         /**
          * 创建新的Safer
@@ -338,6 +631,46 @@ public class SafeOperator {
             saferFor(clazz).exceptionHandlers.addAll(handlers);
         }
 
+        /**
+         * 设置Safer异步系列方法使用的执行器，默认为{@link ForkJoinPool#commonPool()}
+         * @param clazz 用于区分Safer的类
+         * @param executor 执行器
+         */
+        public static void setSaferExecutor(Class<?> clazz, @Nonnull Executor executor) {
+            saferFor(clazz).executor = Objects.requireNonNull(executor);
+        }
+
+        /**
+         * 为Safer设置舱壁，限制get、execute系列的并发数，被拒绝的调用返回对应类型的默认值
+         * @param clazz 用于区分Safer的类
+         * @param bulkhead 舱壁，为null时取消限制
+         * @see Bulkhead
+         */
+        public static void setSaferBulkhead(Class<?> clazz, @Nullable Bulkhead bulkhead) {
+            setSaferLimiter(clazz, bulkhead);
+        }
+
+        /**
+         * 为Safer设置并发限制器，限制get、execute系列的并发数，被拒绝的调用返回对应类型的默认值
+         * <p>一个Safer同时只有一个限制器，后设置的会替换先设置的</p>
+         * @param clazz 用于区分Safer的类
+         * @param limiter 并发限制器，为null时取消限制
+         * @see Bulkhead
+         * @see AdaptiveLimiter
+         */
+        public static void setSaferLimiter(Class<?> clazz, @Nullable ConcurrencyLimiter limiter) {
+            saferFor(clazz).limiter = limiter;
+        }
+
+        /**
+         * 为Safer设置getHedged使用的对冲器，默认为{@link Hedger#of()}
+         * @param clazz 用于区分Safer的类
+         * @param hedger 对冲器
+         */
+        public static void setSaferHedger(Class<?> clazz, @Nonnull Hedger hedger) {
+            saferFor(clazz).hedger = Objects.requireNonNull(hedger);
+        }
+
 
     }
 
@@ -1,14 +1,18 @@
 package pl.codesafe;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import pl.abstracts.functions.FunctionWithThrowable;
 import pl.abstracts.functions.RunnableWithThrowable;
 import pl.abstracts.functions.SupplierWithThrowable;
 import pl.codesafe.SafeOperator.SaferManager;
@@ -39,6 +43,100 @@ public class Safer {
         return SAFER.get(supplier);
     }
 
+    /**
+     * 安全执行某个取值函数，并合并相同key的并发调用
+     * @param key 用于合并调用的key
+     * @param supplier 取值函数
+     * @return 执行函数的返回值，执行失败时返回null
+     * @see SafeOperator#getCoalesced(Object, SupplierWithThrowable)
+     */
+    public static <T, EX extends Throwable> T getCoalesced(@Nonnull Object key, @Nonnull SupplierWithThrowable<T, EX> supplier) {
+        return SAFER.getCoalesced(key, supplier);
+    }
+
+    /**
+     * 以对冲请求的方式安全执行某个取值函数
+     * @param supplier 取值函数，必须是幂等的
+     * @param hedgeDelay 多久没有返回时发起下一次对冲，为null时取最近调用耗时的p95
+     * @param maxHedges 最多发起多少次对冲调用
+     * @return 最先成功的返回值，全部失败时返回null
+     * @see SafeOperator#getHedged(SupplierWithThrowable, Duration, int)
+     */
+    public static <T, EX extends Throwable> T getHedged(@Nonnull SupplierWithThrowable<T, EX> supplier, Duration hedgeDelay,
+                                                        int maxHedges) {
+        return SAFER.getHedged(supplier, hedgeDelay, maxHedges);
+    }
+
+    public static <T, EX extends Throwable> T getHedged(@Nonnull SupplierWithThrowable<T, EX> supplier, int maxHedges) {
+        return SAFER.getHedged(supplier, maxHedges);
+    }
+
+    /**
+     * 构造一个延迟取值，取值失败后下次调用会重试
+     * @param supplier 取值函数
+     * @return 延迟取值
+     * @see SafeOperator#lazy(SupplierWithThrowable)
+     */
+    public static <T, EX extends Throwable> Lazy<T> lazy(@Nonnull SupplierWithThrowable<? extends T, EX> supplier) {
+        return SAFER.lazy(supplier);
+    }
+
+    /**
+     * 构造一个延迟取值
+     * @param supplier 取值函数
+     * @param cacheFailure 取值失败时是否缓存失败：true则之后一直返回null，false则下次调用时重试
+     * @return 延迟取值
+     * @see SafeOperator#lazy(SupplierWithThrowable, boolean)
+     */
+    public static <T, EX extends Throwable> Lazy<T> lazy(@Nonnull SupplierWithThrowable<? extends T, EX> supplier, boolean cacheFailure) {
+        return SAFER.lazy(supplier, cacheFailure);
+    }
+
+    /**
+     * 异步安全执行某个函数，忽略其中所有异常
+     * @param runnable 执行函数
+     * @return 执行结束（无论成功与否）时完成的future
+     */
+    public static <EX extends Throwable> CompletableFuture<Void> executeAsync(@Nonnull RunnableWithThrowable<EX> runnable) {
+        return SAFER.executeAsync(runnable);
+    }
+
+    public static <EX extends Throwable> CompletableFuture<Void> executeAsync(@Nonnull RunnableWithThrowable<EX> runnable,
+                                                                               @Nonnull Executor executor) {
+        return SAFER.executeAsync(runnable, executor);
+    }
+
+    /**
+     * 异步安全执行某个取值函数，忽略其中所有异常
+     * @param supplier 取值函数
+     * @return 以执行函数的返回值完成的future，执行失败时以null完成
+     */
+    public static <T, EX extends Throwable> CompletableFuture<T> getAsync(@Nonnull SupplierWithThrowable<T, EX> supplier) {
+        return SAFER.getAsync(supplier);
+    }
+
+    public static <T, EX extends Throwable> CompletableFuture<T> getAsync(@Nonnull SupplierWithThrowable<T, EX> supplier,
+                                                                          @Nonnull Executor executor) {
+        return SAFER.getAsync(supplier, executor);
+    }
+
+    /**
+     * 对集合中的每个元素并发执行映射函数，忽略其中所有异常
+     * @param values 要映射的元素
+     * @param mapper 映射函数
+     * @return 结果与输入一一对应，映射失败的元素为null
+     */
+    public static <T, R, EX extends Throwable> CompletableFuture<List<R>> mapAsync(Collection<T> values,
+                                                                                  @Nonnull FunctionWithThrowable<? super T, ? extends R, EX> mapper) {
+        return SAFER.mapAsync(values, mapper);
+    }
+
+    public static <T, R, EX extends Throwable> CompletableFuture<List<R>> mapAsync(Collection<T> values,
+                                                                                  @Nonnull FunctionWithThrowable<? super T, ? extends R, EX> mapper,
+                                                                                  @Nonnull Executor executor) {
+        return SAFER.mapAsync(values, mapper, executor);
+    }
+
     public static boolean ensure(Boolean value) {
         return SAFER.ensure(value);
     }
@@ -0,0 +1,524 @@
+package pl.codesafe.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import pl.abstracts.functions.FunctionWithThrowable;
+import pl.codesafe.SafeOperator;
+import pl.codesafe.SafeOperator.SaferManager;
+import pl.codesafe.concurrent.SingleFlight;
+
+/**
+ * 和Safer一样不抛异常的并发缓存
+ * <hr><pre>
+ * SafeCache&lt;Long, User&gt; userCache = SafeCache.&lt;Long, User&gt;builder(id -> userDao.query(id))
+ *     .safer(SaferManager.saferFor(UserDao.class))
+ *     .expireAfterWrite(Duration.ofMinutes(5))
+ *     .refreshAfterWrite(Duration.ofMinutes(4))
+ *     .maximumSize(10_000)
+ *     .build();
+ * userCache.get(id); // 未命中时加载，加载失败时返回过期的旧值或null</pre>
+ * <hr>
+ * <li>同一个key的并发加载会合并为一次</li>
+ * <li>过期：写入后过期（expireAfterWrite）或访问后过期（expireAfterAccess），过期的值会在下次访问时重新加载</li>
+ * <li>提前刷新：写入超过refreshAfterWrite后，访问时返回当前值，并在safer的执行器中后台刷新</li>
+ * <li>加载失败：异常交给safer的异常处理器，返回过期的旧值（没有旧值时返回null）</li>
+ * <li>容量：超过maximumSize时按写入顺序淘汰，最近访问过的值会获得一次豁免（近似LRU）；没有设置maximumSize时不记录写入顺序</li>
+ * <li>加载结果为null时不缓存</li>
+ * @author LiYan
+ */
+public final class SafeCache<K, V> {
+
+    private final FunctionWithThrowable<? super K, ? extends V, ?> loader;
+
+    private final SafeOperator safer;
+
+    private final long expireAfterWriteNanos;
+
+    private final long expireAfterAccessNanos;
+
+    private final long refreshAfterWriteNanos;
+
+    private final long maximumSize;
+
+    private final ConcurrentHashMap<K, Entry<K, V>> map = new ConcurrentHashMap<>();
+
+    /**
+     * 保护写入顺序链表，只在设置了maximumSize时使用
+     */
+    private final Object orderLock = new Object();
+
+    /**
+     * 按写入顺序链接的值，用于容量淘汰，head最早写入；每个在map中的值最多出现一次，移除时O(1)摘除
+     */
+    private Entry<K, V> head;
+
+    private Entry<K, V> tail;
+
+    private final SingleFlight loading = new SingleFlight();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private SafeCache(Builder<K, V> builder) {
+        this.loader = builder.loader;
+        this.safer = builder.safer;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+        this.refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+        this.maximumSize = builder.maximumSize;
+    }
+
+    /**
+     * 创建缓存构造器
+     * @param loader 加载函数
+     * @param <K> key的类型
+     * @param <V> value的类型
+     * @return 缓存构造器
+     */
+    public static <K, V> Builder<K, V> builder(@Nonnull FunctionWithThrowable<? super K, ? extends V, ?> loader) {
+        return new Builder<>(loader);
+    }
+
+    /**
+     * 获取缓存的值，未命中或已过期时加载
+     * @param key key，为null时返回null
+     * @return 缓存或加载的值；加载失败时返回过期的旧值，没有旧值时返回null
+     */
+    @Nullable
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Entry<K, V> entry = map.get(key);
+        if (entry != null && !isExpired(entry, now)) {
+            hitCount.increment();
+            entry.touch(now, expireAfterAccessNanos > 0);
+            if (refreshAfterWriteNanos > 0 && now - entry.writeNanos >= refreshAfterWriteNanos) {
+                refreshAsync(key, entry);
+            }
+            return entry.value;
+        }
+        missCount.increment();
+        return loadCoalesced(key, entry);
+    }
+
+    /**
+     * 获取缓存的值，不会触发加载
+     * @param key key
+     * @return 未过期的缓存值，没有时返回null
+     */
+    @Nullable
+    public V getIfPresent(K key) {
+        if (key == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Entry<K, V> entry = map.get(key);
+        if (entry == null || isExpired(entry, now)) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        entry.touch(now, expireAfterAccessNanos > 0);
+        return entry.value;
+    }
+
+    /**
+     * 直接写入缓存
+     * @param key key
+     * @param value value，为null时移除该key
+     */
+    public void put(@Nonnull K key, @Nullable V value) {
+        if (value == null) {
+            invalidate(key);
+        } else {
+            store(key, value, System.nanoTime());
+        }
+    }
+
+    /**
+     * 移除某个key
+     */
+    public void invalidate(@Nonnull K key) {
+        Entry<K, V> removed = map.remove(key);
+        if (removed != null) {
+            unlink(removed);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        if (maximumSize <= 0) {
+            map.clear();
+            return;
+        }
+        synchronized (orderLock) {
+            map.clear();
+            for (Entry<K, V> e = head; e != null; ) {
+                Entry<K, V> next = e.next;
+                e.prev = e.next = null;
+                e.linked = false;
+                e = next;
+            }
+            head = tail = null;
+        }
+    }
+
+    /**
+     * 清理已过期的值。过期的值在没有被访问时不会自动清理，只会在超出容量时被淘汰，需要时可以定期调用该方法
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+        for (Map.Entry<K, Entry<K, V>> e : map.entrySet()) {
+            if (isExpired(e.getValue(), now) && map.remove(e.getKey(), e.getValue())) {
+                unlink(e.getValue());
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * 缓存的数量（包含已过期但还没有清理的值）
+     */
+    public int size() {
+        return map.size();
+    }
+
+    private boolean isExpired(Entry<K, V> entry, long now) {
+        return (expireAfterWriteNanos > 0 && now - entry.writeNanos >= expireAfterWriteNanos)
+            || (expireAfterAccessNanos > 0 && now - entry.accessNanos >= expireAfterAccessNanos);
+    }
+
+    private void refreshAsync(K key, Entry<K, V> entry) {
+        if (entry.refreshing.compareAndSet(false, true)) {
+            // 直接提交到safer的执行器，加载异常只在load中处理一次
+            try {
+                safer.getExecutor().execute(() -> {
+                    try {
+                        loadCoalesced(key, entry);
+                    } finally {
+                        entry.refreshing.set(false);
+                    }
+                });
+            } catch (Throwable t) {
+                entry.refreshing.set(false);
+                safer.handleException(t);
+            }
+        }
+    }
+
+    /**
+     * 合并相同key的并发加载；等待其他线程的加载时被中断，恢复中断标记并交给异常处理器，返回旧值
+     * @param stale 旧值，可能为null
+     */
+    private V loadCoalesced(K key, @Nullable Entry<K, V> stale) {
+        try {
+            return loading.execute(key, () -> load(key, stale));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            safer.handleException(e);
+            return stale != null ? stale.value : null;
+        }
+    }
+
+    /**
+     * 加载值，失败时交给异常处理器并返回旧值
+     * @param stale 旧值，可能为null
+     */
+    private V load(K key, @Nullable Entry<K, V> stale) {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (Throwable t) {
+            totalLoadNanos.add(System.nanoTime() - start);
+            loadFailureCount.increment();
+            safer.handleException(t);
+            return stale != null ? stale.value : null;
+        }
+        long now = System.nanoTime();
+        totalLoadNanos.add(now - start);
+        loadSuccessCount.increment();
+        if (value == null) {
+            if (stale != null && map.remove(key, stale)) {
+                unlink(stale);
+            }
+        } else {
+            store(key, value, now);
+        }
+        return value;
+    }
+
+    private void store(K key, V value, long now) {
+        Entry<K, V> entry = new Entry<>(key, value, now);
+        Entry<K, V> old = map.put(key, entry);
+        if (maximumSize <= 0) {
+            return;
+        }
+        synchronized (orderLock) {
+            if (old != null) {
+                unlinkLocked(old);
+            }
+            // 并发写入同一个key时，只链接仍在map中的值
+            if (map.get(key) == entry) {
+                linkLast(entry);
+                if (map.size() > maximumSize) {
+                    evictLocked();
+                }
+            }
+        }
+    }
+
+    /**
+     * 值从map中移除后，从写入顺序中摘除
+     */
+    private void unlink(Entry<K, V> entry) {
+        if (maximumSize > 0) {
+            synchronized (orderLock) {
+                unlinkLocked(entry);
+            }
+        }
+    }
+
+    private void linkLast(Entry<K, V> entry) {
+        entry.prev = tail;
+        entry.next = null;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+        }
+        tail = entry;
+        entry.linked = true;
+    }
+
+    private void unlinkLocked(Entry<K, V> entry) {
+        if (!entry.linked) {
+            return;
+        }
+        Entry<K, V> prev = entry.prev;
+        Entry<K, V> next = entry.next;
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.prev = prev;
+        }
+        entry.prev = entry.next = null;
+        entry.linked = false;
+    }
+
+    /**
+     * 按写入顺序淘汰，最近访问过的值重新排到队尾（second chance）
+     */
+    private void evictLocked() {
+        long budget = map.size() * 2L;
+        while (map.size() > maximumSize && budget-- > 0) {
+            Entry<K, V> entry = head;
+            if (entry == null) {
+                return;
+            }
+            unlinkLocked(entry);
+            if (entry.accessed) {
+                entry.accessed = false;
+                linkLast(entry);
+            } else if (map.remove(entry.key, entry)) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /* 统计 */
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 命中率，没有请求时为1
+     */
+    public double getHitRate() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 1 : (double) hit / total;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    /**
+     * 平均加载耗时（包括失败的加载），没有加载时为0
+     */
+    public double getAverageLoadNanos() {
+        long loads = getLoadSuccessCount() + getLoadFailureCount();
+        return loads == 0 ? 0 : (double) totalLoadNanos.sum() / loads;
+    }
+
+    /**
+     * 因容量或过期清理而淘汰的数量
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SafeCache[size=%d, hitRate=%.4f, loadSuccess=%d, loadFailure=%d, averageLoadNanos=%.0f, eviction=%d]",
+            size(), getHitRate(), getLoadSuccessCount(), getLoadFailureCount(), getAverageLoadNanos(), getEvictionCount());
+    }
+
+    private static final class Entry<K, V> {
+
+        final K key;
+
+        final V value;
+
+        final long writeNanos;
+
+        volatile long accessNanos;
+
+        /**
+         * 淘汰时的豁免标记
+         */
+        volatile boolean accessed;
+
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        /**
+         * 写入顺序链表的指针，由orderLock保护
+         */
+        Entry<K, V> prev;
+
+        Entry<K, V> next;
+
+        boolean linked;
+
+        Entry(K key, V value, long now) {
+            this.key = key;
+            this.value = value;
+            this.writeNanos = now;
+            this.accessNanos = now;
+        }
+
+        void touch(long now, boolean recordAccessTime) {
+            if (recordAccessTime) {
+                accessNanos = now;
+            }
+            if (!accessed) {
+                accessed = true;
+            }
+        }
+    }
+
+    /**
+     * {@link SafeCache}的构造器
+     */
+    public static final class Builder<K, V> {
+
+        private final FunctionWithThrowable<? super K, ? extends V, ?> loader;
+
+        private SafeOperator safer = SaferManager.saferFor(SafeCache.class);
+
+        private long expireAfterWriteNanos;
+
+        private long expireAfterAccessNanos;
+
+        private long refreshAfterWriteNanos;
+
+        private long maximumSize;
+
+        private Builder(@Nonnull FunctionWithThrowable<? super K, ? extends V, ?> loader) {
+            this.loader = Objects.requireNonNull(loader);
+        }
+
+        /**
+         * 处理加载异常、执行后台刷新的safer，默认为SaferManager.saferFor(SafeCache.class)
+         */
+        public Builder<K, V> safer(@Nonnull SafeOperator safer) {
+            this.safer = Objects.requireNonNull(safer);
+            return this;
+        }
+
+        /**
+         * 写入后多久过期
+         */
+        public Builder<K, V> expireAfterWrite(@Nonnull Duration duration) {
+            this.expireAfterWriteNanos = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * 最后一次访问后多久过期
+         */
+        public Builder<K, V> expireAfterAccess(@Nonnull Duration duration) {
+            this.expireAfterAccessNanos = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * 写入后多久开始后台刷新，同时设置了expireAfterWrite时必须小于它，否则值在刷新前就已过期
+         */
+        public Builder<K, V> refreshAfterWrite(@Nonnull Duration duration) {
+            this.refreshAfterWriteNanos = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * 最多缓存多少个值
+         */
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("maximumSize must be positive, but was " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public SafeCache<K, V> build() {
+            if (refreshAfterWriteNanos > 0 && expireAfterWriteNanos > 0 && refreshAfterWriteNanos >= expireAfterWriteNanos) {
+                throw new IllegalArgumentException(String.format("refreshAfterWrite (%s) must be less than expireAfterWrite (%s)",
+                    Duration.ofNanos(refreshAfterWriteNanos), Duration.ofNanos(expireAfterWriteNanos)));
+            }
+            return new SafeCache<>(this);
+        }
+
+        private static long positiveNanos(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("duration must be positive, but was " + duration);
+            }
+            return duration.toNanos();
+        }
+    }
+
+}
@@ -0,0 +1,269 @@
+package pl.codesafe.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发限制器（AIMD），不需要手动调整并发上限
+ * <hr><pre>
+ * SaferManager.setSaferLimiter(PriceClient.class, AdaptiveLimiter.of());
+ * SafeOperator safer = SaferManager.saferFor(PriceClient.class);
+ * safer.getBigDecimal(() -> priceClient.query(id)); // 超出当前并发上限时直接返回BigDecimal.ZERO</pre>
+ * <hr>
+ * <p>根据每次调用的耗时和结果调整并发上限：</p>
+ * <li>调用成功且耗时接近基线耗时，失败率没有超过阈值，并且并发已经用满一半以上时，上限加性增长（每个上限周期约+1）</li>
+ * <li>调用耗时超过基线耗时的{@code tolerance}倍，或者失败率超过{@code failureRateThreshold}时，上限乘性下降，每个基线耗时内最多下降一次</li>
+ * <p>失败率是最近约20次调用的指数加权平均，偶尔的失败（比如被异常处理器忽略的业务异常）不会降低上限</p>
+ * <p>基线耗时取观测到的最小成功耗时，并会缓慢向上漂移，以适应下游的正常变化</p>
+ * <p>所有状态都基于CAS更新，不使用锁</p>
+ * @author LiYan
+ * @see ConcurrencyLimiter
+ */
+public final class AdaptiveLimiter implements ConcurrencyLimiter {
+
+    /**
+     * 基线耗时向上漂移的速度
+     */
+    private static final double BASELINE_DRIFT = 0.01;
+
+    /**
+     * 失败率指数加权平均的权重，约等于最近20次调用的平均
+     */
+    private static final double FAILURE_RATE_WEIGHT = 0.05;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double tolerance;
+
+    private final double failureRateThreshold;
+
+    /**
+     * 当前并发上限，以double的bit存储
+     */
+    private final AtomicLong limitBits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 基线耗时，0表示还没有样本
+     */
+    private final AtomicLong baselineNanos = new AtomicLong();
+
+    /**
+     * 失败率的指数加权平均，以double的bit存储
+     */
+    private final AtomicLong failureRateBits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+    private final LongAdder rejected = new LongAdder();
+
+    private AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance,
+                            double failureRateThreshold) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit
+            || backoffRatio <= 0 || backoffRatio >= 1 || tolerance <= 1
+            || !(failureRateThreshold > 0 && failureRateThreshold < 1)) {
+            throw new IllegalArgumentException(String.format(
+                "Illegal adaptive limiter config: initialLimit=%d, minLimit=%d, maxLimit=%d, backoffRatio=%s, tolerance=%s, failureRateThreshold=%s",
+                initialLimit, minLimit, maxLimit, backoffRatio, tolerance, failureRateThreshold));
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.failureRateThreshold = failureRateThreshold;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+    }
+
+    /**
+     * 使用默认配置构造：初始上限20，范围[1, 1000]，下降比例0.9，耗时超过基线2倍或失败率超过50%视为过载
+     * @return 自适应并发限制器
+     */
+    public static AdaptiveLimiter of() {
+        return of(20, 1, 1000);
+    }
+
+    /**
+     * 构造自适应并发限制器，下降比例0.9，耗时超过基线2倍或失败率超过50%视为过载
+     * @param initialLimit 初始并发上限
+     * @param minLimit 最小并发上限
+     * @param maxLimit 最大并发上限
+     * @return 自适应并发限制器
+     */
+    public static AdaptiveLimiter of(int initialLimit, int minLimit, int maxLimit) {
+        return of(initialLimit, minLimit, maxLimit, 0.9, 2.0);
+    }
+
+    /**
+     * 构造自适应并发限制器
+     * @param initialLimit 初始并发上限
+     * @param minLimit 最小并发上限
+     * @param maxLimit 最大并发上限
+     * @param backoffRatio 过载时上限乘以该比例，范围(0, 1)
+     * @param tolerance 耗时超过基线耗时的多少倍视为过载，必须大于1
+     * @return 自适应并发限制器
+     */
+    public static AdaptiveLimiter of(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance) {
+        return of(initialLimit, minLimit, maxLimit, backoffRatio, tolerance, 0.5);
+    }
+
+    /**
+     * 构造自适应并发限制器
+     * @param initialLimit 初始并发上限
+     * @param minLimit 最小并发上限
+     * @param maxLimit 最大并发上限
+     * @param backoffRatio 过载时上限乘以该比例，范围(0, 1)
+     * @param tolerance 耗时超过基线耗时的多少倍视为过载，必须大于1
+     * @param failureRateThreshold 最近调用的失败率超过多少视为过载，范围(0, 1)
+     * @return 自适应并发限制器
+     */
+    public static AdaptiveLimiter of(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance,
+                                     double failureRateThreshold) {
+        return new AdaptiveLimiter(initialLimit, minLimit, maxLimit, backoffRatio, tolerance, failureRateThreshold);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(long latencyNanos, boolean success) {
+        int current = inFlight.getAndDecrement();
+        boolean failing = updateFailureRate(success) > failureRateThreshold;
+        if (!success) {
+            // 失败的调用可能很快返回，不参与基线耗时
+            if (failing) {
+                decrease(baselineNanos.get());
+            }
+            return;
+        }
+        long baseline = updateBaseline(latencyNanos);
+        if (failing || latencyNanos > baseline * tolerance) {
+            decrease(baseline);
+        } else if (current * 2 >= getLimit()) {
+            increase();
+        }
+    }
+
+    /**
+     * 归还许可，不调整并发上限
+     */
+    @Override
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private double updateFailureRate(boolean success) {
+        for (;;) {
+            long bits = failureRateBits.get();
+            double rate = Double.longBitsToDouble(bits);
+            double next = rate + ((success ? 0 : 1) - rate) * FAILURE_RATE_WEIGHT;
+            if (failureRateBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return next;
+            }
+        }
+    }
+
+    private long updateBaseline(long latencyNanos) {
+        latencyNanos = Math.max(latencyNanos, 1);
+        for (;;) {
+            long baseline = baselineNanos.get();
+            long next;
+            if (baseline == 0 || latencyNanos < baseline) {
+                next = latencyNanos;
+            } else {
+                next = baseline + (long) Math.ceil((latencyNanos - baseline) * BASELINE_DRIFT);
+            }
+            if (next == baseline || baselineNanos.compareAndSet(baseline, next)) {
+                return next;
+            }
+        }
+    }
+
+    private void increase() {
+        for (;;) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            if (limit >= maxLimit) {
+                return;
+            }
+            double next = Math.min(maxLimit, limit + 1 / limit);
+            if (limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    private void decrease(long baseline) {
+        long now = System.nanoTime();
+        long last = lastDecreaseNanos.get();
+        // 同一批过载的调用只下降一次
+        if (now - last < baseline || !lastDecreaseNanos.compareAndSet(last, now)) {
+            return;
+        }
+        for (;;) {
+            long bits = limitBits.get();
+            double next = Math.max(minLimit, Double.longBitsToDouble(bits) * backoffRatio);
+            if (limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前并发上限
+     */
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    /**
+     * 当前正在执行的调用数量
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 当前的基线耗时，还没有样本时为0
+     */
+    public long getBaselineLatencyNanos() {
+        return baselineNanos.get();
+    }
+
+    /**
+     * 最近调用的失败率（指数加权平均）
+     */
+    public double getFailureRate() {
+        return Double.longBitsToDouble(failureRateBits.get());
+    }
+
+    /**
+     * 累计被拒绝的调用数量
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdaptiveLimiter[limit=%d, inFlight=%d, baselineNanos=%d, failureRate=%.3f, rejected=%d]",
+            getLimit(), getInFlight(), getBaselineLatencyNanos(), getFailureRate(), getRejectedCount());
+    }
+
+}
@@ -0,0 +1,196 @@
+package pl.codesafe.concurrent;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 舱壁，限制同时进行的受保护调用数量，避免一个缓慢的下游耗尽全部请求线程
+ * <hr><pre>
+ * // 最多10个并发调用，最多20个调用排队等待，每个最多等待50ms
+ * SaferManager.setSaferBulkhead(UserClient.class, Bulkhead.of(10, 20, 50));
+ * SafeOperator safer = SaferManager.saferFor(UserClient.class);
+ * safer.getList(() -> userClient.query(ids)); // 被拒绝时直接返回new ArrayList()，不会一直排队</pre>
+ * <hr>
+ * <p>许可的获取和释放都是基于CAS的，不使用锁；只有需要排队时才会挂起线程</p>
+ * <p>等待队列已满、等待超时或等待中被中断时，调用会被拒绝，并计入{@link #getRejectedCount()}</p>
+ * @author LiYan
+ * @see ConcurrencyLimiter
+ */
+public final class Bulkhead implements ConcurrencyLimiter {
+
+    private final int maxConcurrent;
+
+    private final int maxWaiting;
+
+    private final long maxWaitNanos;
+
+    /**
+     * 剩余许可
+     */
+    private final AtomicInteger permits;
+
+    /**
+     * 当前排队的数量
+     */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private Bulkhead(int maxConcurrent, int maxWaiting, long maxWaitNanos) {
+        if (maxConcurrent <= 0 || maxWaiting < 0 || maxWaitNanos < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Illegal bulkhead config: maxConcurrent=%d, maxWaiting=%d, maxWaitNanos=%d", maxConcurrent, maxWaiting, maxWaitNanos));
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWaitNanos;
+        this.permits = new AtomicInteger(maxConcurrent);
+    }
+
+    /**
+     * 构造一个不排队的舱壁，超过并发上限的调用会被立即拒绝
+     * @param maxConcurrent 最大并发数
+     * @return 舱壁
+     */
+    public static Bulkhead of(int maxConcurrent) {
+        return new Bulkhead(maxConcurrent, 0, 0);
+    }
+
+    /**
+     * 构造一个带有界等待队列的舱壁
+     * @param maxConcurrent 最大并发数
+     * @param maxWaiting 最多允许多少个调用排队等待
+     * @param maxWaitMillis 排队的最长等待时间
+     * @return 舱壁
+     */
+    public static Bulkhead of(int maxConcurrent, int maxWaiting, long maxWaitMillis) {
+        return new Bulkhead(maxConcurrent, maxWaiting, TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+    }
+
+    /**
+     * 尝试获取许可，必要时排队等待
+     * @return 是否获取到许可，获取到许可后必须调用{@link #release()}归还
+     */
+    @Override
+    public boolean tryAcquire() {
+        if (tryAcquirePermit() || (maxWaiting > 0 && awaitPermit())) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * 归还许可，并唤醒排在最前面的等待者
+     */
+    @Override
+    public void release() {
+        permits.incrementAndGet();
+        Thread next = waiters.peek();
+        if (next != null) {
+            LockSupport.unpark(next);
+        }
+    }
+
+    /**
+     * 归还许可，舱壁不关心调用的耗时和结果
+     * @see #release()
+     */
+    @Override
+    public void release(long latencyNanos, boolean success) {
+        release();
+    }
+
+    private boolean tryAcquirePermit() {
+        for (;;) {
+            int available = permits.get();
+            if (available <= 0) {
+                return false;
+            }
+            if (permits.compareAndSet(available, available - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean awaitPermit() {
+        for (;;) {
+            int queued = waiting.get();
+            if (queued >= maxWaiting) {
+                return false;
+            }
+            if (waiting.compareAndSet(queued, queued + 1)) {
+                break;
+            }
+        }
+        Thread current = Thread.currentThread();
+        waiters.add(current);
+        boolean acquired = false;
+        try {
+            long deadline = System.nanoTime() + maxWaitNanos;
+            for (;;) {
+                // 入队之后再检查一次，避免与release之间丢失唤醒
+                if (tryAcquirePermit()) {
+                    acquired = true;
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || current.isInterrupted()) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            waiters.remove(current);
+            waiting.decrementAndGet();
+            // 放弃等待时，可能吞掉了一次唤醒，转交给下一个等待者
+            if (!acquired && permits.get() > 0) {
+                Thread next = waiters.peek();
+                if (next != null) {
+                    LockSupport.unpark(next);
+                }
+            }
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxWaiting() {
+        return maxWaiting;
+    }
+
+    /**
+     * 当前正在执行的调用数量
+     */
+    public int getActiveCount() {
+        return maxConcurrent - permits.get();
+    }
+
+    /**
+     * 当前排队等待的调用数量
+     */
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    /**
+     * 累计被拒绝的调用数量
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Bulkhead[active=%d/%d, queued=%d/%d, rejected=%d]",
+            getActiveCount(), maxConcurrent, getQueueDepth(), maxWaiting, getRejectedCount());
+    }
+
+}
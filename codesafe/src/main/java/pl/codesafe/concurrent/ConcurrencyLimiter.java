@@ -0,0 +1,30 @@
+package pl.codesafe.concurrent;
+
+/**
+ * 并发限制器，Safer在执行受保护的调用前获取许可，执行结束后归还许可并报告本次调用的耗时和结果
+ * <p>获取不到许可的调用会被拒绝，Safer会直接返回默认值</p>
+ * @author LiYan
+ * @see Bulkhead
+ * @see AdaptiveLimiter
+ */
+public interface ConcurrencyLimiter {
+
+    /**
+     * 尝试获取许可
+     * @return 是否获取到许可，获取到许可后必须调用{@link #release(long, boolean)}或{@link #release()}归还
+     */
+    boolean tryAcquire();
+
+    /**
+     * 归还许可
+     * @param latencyNanos 本次调用的耗时
+     * @param success 本次调用是否成功（没有抛出异常）
+     */
+    void release(long latencyNanos, boolean success);
+
+    /**
+     * 归还许可，不报告本次调用的耗时和结果，用于被取消等不能反映下游状态的调用
+     */
+    void release();
+
+}
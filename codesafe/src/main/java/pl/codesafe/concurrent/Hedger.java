@@ -0,0 +1,352 @@
+package pl.codesafe.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import pl.abstracts.functions.SupplierWithThrowable;
+
+/**
+ * 对冲请求：第一次调用迟迟没有返回时，再发起一次相同的调用，取最先成功的结果并取消其余调用，用于降低长尾耗时
+ * <hr><pre>
+ * // 第一次调用超过20ms没有返回时，最多再发起1次
+ * safer.getHedged(() -> replicaClient.read(key), Duration.ofMillis(20), 1);
+ * // 等待时间取最近调用耗时的p95
+ * safer.getHedged(() -> replicaClient.read(key), 1);</pre>
+ * <hr>
+ * <p>对冲调用受预算限制：每次首次调用积累{@code budgetRatio}次对冲额度，每次对冲消耗1次，
+ * 因此对冲调用的数量不会超过首次调用的{@code budgetRatio}倍（最多1倍，即负载最多翻倍）</p>
+ * <p>不会发起对冲时（maxHedges为0、耗时样本不足或者没有对冲额度），直接在调用者线程中执行，不切换线程</p>
+ * <p>在ForkJoinPool（默认的commonPool）中执行的调用通过{@link ForkJoinPool#managedBlock}执行，
+ * 阻塞时线程池会补充线程，对冲调用不会排在阻塞的首次调用之后</p>
+ * <p>被取消的调用（其他调用已经成功）归还许可时不报告耗时和结果，不会影响{@link AdaptiveLimiter}的上限</p>
+ * <p>只适合幂等的调用</p>
+ * @author LiYan
+ */
+public final class Hedger {
+
+    /**
+     * 额度以千分之一为单位存储
+     */
+    private static final long TOKEN = 1000;
+
+    /**
+     * 最多积累的对冲额度，避免长时间空闲后突发大量对冲
+     */
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final long tokensPerPrimary;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    private final LatencyTracker latency = new LatencyTracker(0.95);
+
+    private final LongAdder primaryCount = new LongAdder();
+
+    private final LongAdder hedgeCount = new LongAdder();
+
+    private Hedger(double budgetRatio) {
+        if (!(budgetRatio > 0 && budgetRatio <= 1)) {
+            throw new IllegalArgumentException("Hedge budget ratio must be in (0, 1], but was " + budgetRatio);
+        }
+        this.tokensPerPrimary = (long) (budgetRatio * TOKEN);
+    }
+
+    /**
+     * 对冲调用最多为首次调用的10%
+     * @return 对冲器
+     */
+    public static Hedger of() {
+        return of(0.1);
+    }
+
+    /**
+     * @param budgetRatio 对冲调用最多为首次调用的多少倍，范围(0, 1]
+     * @return 对冲器
+     */
+    public static Hedger of(double budgetRatio) {
+        return new Hedger(budgetRatio);
+    }
+
+    /**
+     * 执行调用，必要时发起对冲调用
+     * @param supplier 取值函数，必须是幂等的
+     * @param executor 执行每次调用的执行器
+     * @param hedgeDelayNanos 多久没有返回时发起下一次对冲，小于0时取最近调用耗时的p95（样本不足时不对冲）
+     * @param maxHedges 最多发起多少次对冲调用
+     * @param limiter 并发限制器，每次调用都需要获取许可，为null时不限制
+     * @param <T> 结果类型
+     * @return 最先成功的结果，所有调用都被限制器拒绝时返回null
+     * @throws Throwable 所有调用都失败时，抛出第一个失败的异常；等待时被中断，抛出InterruptedException
+     */
+    public <T, EX extends Throwable> T execute(@Nonnull SupplierWithThrowable<T, EX> supplier, @Nonnull Executor executor,
+                                               long hedgeDelayNanos, int maxHedges, @Nullable ConcurrencyLimiter limiter)
+        throws Throwable {
+        deposit();
+        primaryCount.increment();
+        long delay = hedgeDelayNanos >= 0 ? hedgeDelayNanos : latency.estimate();
+        if (maxHedges <= 0 || delay < 0 || tokens.get() < TOKEN) {
+            return executeInline(supplier, limiter);
+        }
+
+        Attempts<T> attempts = new Attempts<>(maxHedges + 1);
+        attempts.launch(supplier, executor, limiter);
+        try {
+            for (;;) {
+                boolean canHedge = delay >= 0 && attempts.launched < maxHedges + 1;
+                try {
+                    return canHedge ? attempts.result.get(delay, TimeUnit.NANOSECONDS) : attempts.result.get();
+                } catch (TimeoutException e) {
+                    if (!attempts.result.isDone() && tryWithdraw()) {
+                        hedgeCount.increment();
+                        try {
+                            attempts.launch(supplier, executor, limiter);
+                        } catch (Throwable rejected) {
+                            // 对冲调用提交失败时，继续等待已经发起的调用
+                            delay = -1;
+                        }
+                    } else {
+                        delay = -1;
+                    }
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            }
+        } finally {
+            attempts.cancelAll();
+        }
+    }
+
+    /**
+     * 不会对冲时直接在调用者线程中执行
+     */
+    private <T, EX extends Throwable> T executeInline(SupplierWithThrowable<T, EX> supplier, ConcurrencyLimiter limiter)
+        throws Throwable {
+        if (limiter != null && !limiter.tryAcquire()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = supplier.get();
+        } catch (Throwable t) {
+            if (limiter != null) {
+                limiter.release(System.nanoTime() - start, false);
+            }
+            throw t;
+        }
+        long elapsed = System.nanoTime() - start;
+        latency.record(elapsed);
+        if (limiter != null) {
+            limiter.release(elapsed, true);
+        }
+        return value;
+    }
+
+    private void deposit() {
+        for (;;) {
+            long current = tokens.get();
+            if (current >= MAX_TOKENS) {
+                return;
+            }
+            if (tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + tokensPerPrimary))) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryWithdraw() {
+        for (;;) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 累计的首次调用数量
+     */
+    public long getPrimaryCount() {
+        return primaryCount.sum();
+    }
+
+    /**
+     * 累计的对冲调用数量
+     */
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    /**
+     * 当前估算的调用耗时p95，样本不足时为-1
+     */
+    public long getEstimatedP95Nanos() {
+        return latency.estimate();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Hedger[primary=%d, hedge=%d, p95Nanos=%d]", getPrimaryCount(), getHedgeCount(), getEstimatedP95Nanos());
+    }
+
+    /**
+     * 一次对冲执行中发起的所有调用
+     */
+    private final class Attempts<T> {
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /**
+         * 正在执行每次调用的线程，用于取消；执行结束后置为null，由this保护
+         */
+        final Thread[] runners;
+
+        int launched;
+
+        /**
+         * 是否已经取消，由this保护
+         */
+        boolean cancelled;
+
+        final AtomicInteger pending = new AtomicInteger();
+
+        final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        Attempts(int maxAttempts) {
+            this.runners = new Thread[maxAttempts];
+        }
+
+        <EX extends Throwable> void launch(SupplierWithThrowable<T, EX> supplier, Executor executor, ConcurrencyLimiter limiter) {
+            int index = launched;
+            pending.incrementAndGet();
+            try {
+                executor.execute(() -> run(index, supplier, limiter));
+            } catch (Throwable t) {
+                pending.decrementAndGet();
+                throw t;
+            }
+            launched++;
+        }
+
+        private <EX extends Throwable> void run(int index, SupplierWithThrowable<T, EX> supplier, ConcurrencyLimiter limiter) {
+            if (result.isDone() || (limiter != null && !limiter.tryAcquire())) {
+                finish();
+                return;
+            }
+            synchronized (this) {
+                if (cancelled) {
+                    if (limiter != null) {
+                        limiter.release();
+                    }
+                    finish();
+                    return;
+                }
+                runners[index] = Thread.currentThread();
+            }
+            long start = System.nanoTime();
+            Blocker<T, EX> blocker = new Blocker<>(supplier);
+            try {
+                ForkJoinPool.managedBlock(blocker);
+            } catch (InterruptedException e) {
+                blocker.failure = e;
+            } finally {
+                synchronized (this) {
+                    runners[index] = null;
+                    // 取消时的中断只针对本次调用，不能留给线程池中的下一个任务
+                    if (cancelled) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (blocker.failure == null) {
+                latency.record(elapsed);
+                result.complete(blocker.value);
+                if (limiter != null) {
+                    limiter.release(elapsed, true);
+                }
+            } else if (result.isDone()) {
+                // 其他调用已经成功，本次调用是被取消的，不能反映下游的状态
+                if (limiter != null) {
+                    limiter.release();
+                }
+            } else {
+                firstFailure.compareAndSet(null, blocker.failure);
+                if (limiter != null) {
+                    limiter.release(elapsed, false);
+                }
+            }
+            finish();
+        }
+
+        /**
+         * 所有已发起的调用都结束且没有成功时，以第一个失败结束
+         */
+        private void finish() {
+            if (pending.decrementAndGet() == 0 && !result.isDone()) {
+                Throwable failure = firstFailure.get();
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(null);
+                }
+            }
+        }
+
+        synchronized void cancelAll() {
+            cancelled = true;
+            for (Thread runner : runners) {
+                if (runner != null) {
+                    runner.interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * 在ForkJoinPool中执行可能阻塞的调用时，让线程池补充线程
+     */
+    private static final class Blocker<T, EX extends Throwable> implements ForkJoinPool.ManagedBlocker {
+
+        final SupplierWithThrowable<T, EX> supplier;
+
+        T value;
+
+        Throwable failure;
+
+        boolean done;
+
+        Blocker(SupplierWithThrowable<T, EX> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                value = supplier.get();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+}
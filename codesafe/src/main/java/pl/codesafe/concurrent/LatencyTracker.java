@@ -0,0 +1,62 @@
+package pl.codesafe.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 记录最近一批调用的耗时，用于估算耗时分位数
+ * <p>样本保存在定长的环形数组中，分位数每记录{@link #RECOMPUTE_INTERVAL}个样本才重新计算一次</p>
+ * @author LiYan
+ */
+final class LatencyTracker {
+
+    private static final int CAPACITY = 256;
+
+    private static final int MIN_SAMPLES = 32;
+
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    private final AtomicLongArray samples = new AtomicLongArray(CAPACITY);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final double quantile;
+
+    private volatile long cachedNanos = -1;
+
+    private volatile long cachedAt = -1;
+
+    LatencyTracker(double quantile) {
+        this.quantile = quantile;
+    }
+
+    void record(long latencyNanos) {
+        long i = count.getAndIncrement();
+        samples.set((int) (i % CAPACITY), latencyNanos);
+    }
+
+    /**
+     * @return 估算的耗时分位数，样本不足时返回-1
+     */
+    long estimate() {
+        long n = count.get();
+        if (n < MIN_SAMPLES) {
+            return -1;
+        }
+        if (n - cachedAt < RECOMPUTE_INTERVAL) {
+            return cachedNanos;
+        }
+        int size = (int) Math.min(n, CAPACITY);
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        long value = copy[Math.min(size - 1, (int) (size * quantile))];
+        cachedNanos = value;
+        cachedAt = n;
+        return value;
+    }
+
+}
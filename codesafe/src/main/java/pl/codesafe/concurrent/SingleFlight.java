@@ -0,0 +1,69 @@
+package pl.codesafe.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+
+/**
+ * 合并并发的相同请求：同一个key同时只有一次调用在执行，期间其他调用者直接等待并共享这次调用的结果
+ * <p>调用结束后立即移除，不会缓存结果，之后的调用会重新执行</p>
+ * <p>注意不要在调用内部再次以相同的key调用，这会等待自己而永远无法结束</p>
+ * @author LiYan
+ */
+public final class SingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 执行调用，如果相同key的调用正在执行，等待并返回它的结果
+     * @param key 用于合并调用的key
+     * @param call 调用
+     * @param <T> 结果类型
+     * @return 调用结果，如果调用抛出了异常，所有等待者都会抛出同一个异常
+     * @throws InterruptedException 等待其他调用者的结果时被中断
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(@Nonnull Object key, @Nonnull Supplier<T> call) throws InterruptedException {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+        try {
+            T value = call.get();
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 当前正在执行的调用数量
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+}
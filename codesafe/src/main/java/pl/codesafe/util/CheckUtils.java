@@ -1,13 +1,27 @@
 package pl.codesafe.util;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoublePredicate;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
 import java.util.function.Predicate;
-import pl.abstracts.validate.Validatable;
-import pl.codesafe.Safer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 
 /**
  * 校验参数工具
@@ -15,6 +29,17 @@ import pl.codesafe.Safer;
  */
 public class CheckUtils {
 
+    /**
+     * 批量校验超过该数量时才会并行：名称以Parallel结尾的方法，以及只判断null和空字符串的nullMask、blankMask
+     * <p>其他方法（包括allElementValid、anyElementValid、invalidIndexes）总是在调用者线程中顺序执行</p>
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * beforeNow、afterNow使用的时钟，为null时使用系统时钟
+     */
+    @Nullable
+    private static volatile Clock clock;
 
 
     /*************************************** Object ******************************************/
@@ -67,17 +92,81 @@ public class CheckUtils {
 
     /**
      * 字符串是否为空（广义）
+     * <p>先按长度判断，只有长度为4或9时才逐个字符比较；" "等空白字符串不算空，需要时请使用{@link #isBlankOrWhitespace}</p>
      * @param s string
-     * @return 字符串为 null, "", " ", "null", "undefined" 时，true
+     * @return 字符串为 null, "", "null", "undefined"（忽略大小写）时，true
      */
     public static boolean isBlank(String s) {
-        return s == null || s.length() == 0 || "null".equalsIgnoreCase(s) || "undefined".equalsIgnoreCase(s);
+        return s == null || isBlank0(s);
+    }
+
+    /**
+     * 字符序列是否为空（广义），与{@link #isBlank(String)}一致，不需要先toString()
+     * @param cs 字符序列
+     * @return 字符序列为 null, "", "null", "undefined"（忽略大小写）时，true
+     */
+    public static boolean isBlank(CharSequence cs) {
+        return cs == null || isBlank0(cs);
+    }
+
+    /**
+     * 字符序列是否为空（广义）或者只包含空白字符
+     * <p>空白字符与{@link Character#isWhitespace(char)}一致，Latin-1范围内的字符不调用Character方法</p>
+     * @param cs 字符序列
+     * @return 字符序列为 null, "", "null", "undefined"（忽略大小写）, 或者只包含空白字符（比如" "）时，true
+     */
+    public static boolean isBlankOrWhitespace(CharSequence cs) {
+        if (cs == null || isBlank0(cs)) {
+            return true;
+        }
+        for (int i = 0, length = cs.length(); i < length; i++) {
+            char c = cs.charAt(i);
+            if (c < 256 ? !isLatin1Whitespace(c) : !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank0(CharSequence cs) {
+        switch (cs.length()) {
+            case 0:
+                return true;
+            case 4:
+                return equalsIgnoreCase(cs, "null");
+            case 9:
+                return equalsIgnoreCase(cs, "undefined");
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 与等长的小写ASCII字母串比较，忽略大小写
+     * <p>ASCII字符只需要把大写字母转为小写；遇到非ASCII字符（比如土耳其语的'ı'）时交给{@link String#equalsIgnoreCase}，保持完全相同的语义</p>
+     */
+    private static boolean equalsIgnoreCase(CharSequence cs, String lowerAscii) {
+        for (int i = 0; i < lowerAscii.length(); i++) {
+            char c = cs.charAt(i);
+            if (c >= 0x80) {
+                return lowerAscii.equalsIgnoreCase(cs.toString());
+            }
+            // 目标都是小写字母，|0x20只会把对应的大写字母变为小写
+            if ((c | 0x20) != lowerAscii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLatin1Whitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r') || (c >= 0x1C && c <= 0x1F);
     }
 
     /**
      * 字符串是否不为空（广义）
      * @param s string
-     * @return 字符串为 null, "", " ", "null", "undefined" 时，false
+     * @return 字符串为 null, "", "null", "undefined" 时，false
      * @see #isBlank(String)
      */
     public static boolean isNotBlank(String s) {
@@ -87,7 +176,7 @@ public class CheckUtils {
     /**
      * 这些字符串是否存在空（广义）
      * @param strs string[]
-     * @return 某个字符串为 null, "", " ", "null", "undefined" 时，true
+     * @return 某个字符串为 null, "", "null", "undefined" 时，true
      * @see #isBlank(String)
      */
     public static boolean isAnyBlank(String... strs) {
@@ -175,55 +264,132 @@ public class CheckUtils {
     /*************************************** Number ******************************************/
 
     /**
-     * 是否等于0 (number.doubleValue() == 0)
+     * {@link #signum(Number)}的返回值：NaN，与0比较总是false
+     */
+    private static final int UNORDERED = 2;
+
+    /**
+     * 是否等于0，整数、BigDecimal、BigInteger精确比较，其他类型按doubleValue()比较
      */
     public static boolean equalsZero(Number number) {
-        if (number != null) {
-            return number.doubleValue() == 0;
-        }
-        return false;
+        return number != null && signum(number) == 0;
+    }
+
+    public static boolean equalsZero(int number) {
+        return number == 0;
+    }
+
+    public static boolean equalsZero(long number) {
+        return number == 0;
+    }
+
+    public static boolean equalsZero(double number) {
+        return number == 0;
     }
 
     /**
-     * 是否大于0 (number.doubleValue() > 0)
+     * 是否大于0，整数、BigDecimal、BigInteger精确比较，其他类型按doubleValue()比较
      */
     public static boolean moreThanZero(Number number) {
-        if (number != null) {
-            return number.doubleValue() > 0;
-        }
-        return false;
+        return number != null && signum(number) == 1;
+    }
+
+    public static boolean moreThanZero(int number) {
+        return number > 0;
+    }
+
+    public static boolean moreThanZero(long number) {
+        return number > 0;
+    }
+
+    public static boolean moreThanZero(double number) {
+        return number > 0;
     }
 
     /**
-     * 是否大于等于0 (number.doubleValue() >= 0)
+     * 是否大于等于0，整数、BigDecimal、BigInteger精确比较，其他类型按doubleValue()比较
      */
     public static boolean moreEqualsZero(Number number) {
         if (number != null) {
-            return number.doubleValue() >= 0;
+            int signum = signum(number);
+            return signum == 0 || signum == 1;
         }
         return false;
     }
 
+    public static boolean moreEqualsZero(int number) {
+        return number >= 0;
+    }
+
+    public static boolean moreEqualsZero(long number) {
+        return number >= 0;
+    }
+
+    public static boolean moreEqualsZero(double number) {
+        return number >= 0;
+    }
+
     /**
-     * 是否小于0 (number.doubleValue() < 0)
+     * 是否小于0，整数、BigDecimal、BigInteger精确比较，其他类型按doubleValue()比较
      */
     public static boolean lessThanZero(Number number) {
-        if (number != null) {
-            return number.doubleValue() < 0;
-        }
-        return false;
+        return number != null && signum(number) == -1;
+    }
+
+    public static boolean lessThanZero(int number) {
+        return number < 0;
+    }
+
+    public static boolean lessThanZero(long number) {
+        return number < 0;
+    }
+
+    public static boolean lessThanZero(double number) {
+        return number < 0;
     }
 
     /**
-     * 是否小于等于0 (number.doubleValue() <= 0)
+     * 是否小于等于0，整数、BigDecimal、BigInteger精确比较，其他类型按doubleValue()比较
      */
     public static boolean lessEqualsZero(Number number) {
         if (number != null) {
-            return number.doubleValue() <= 0;
+            int signum = signum(number);
+            return signum == 0 || signum == -1;
         }
         return false;
     }
 
+    public static boolean lessEqualsZero(int number) {
+        return number <= 0;
+    }
+
+    public static boolean lessEqualsZero(long number) {
+        return number <= 0;
+    }
+
+    public static boolean lessEqualsZero(double number) {
+        return number <= 0;
+    }
+
+    /**
+     * 数值的符号
+     * @return -1、0、1，NaN时为{@link #UNORDERED}
+     */
+    private static int signum(Number number) {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte
+            || number instanceof AtomicInteger || number instanceof AtomicLong || number instanceof LongAdder) {
+            return Long.signum(number.longValue());
+        }
+        if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).signum();
+        }
+        if (number instanceof BigInteger) {
+            return ((BigInteger) number).signum();
+        }
+        double d = number.doubleValue();
+        return d > 0 ? 1 : d < 0 ? -1 : d == 0 ? 0 : UNORDERED;
+    }
+
     /**
      * 两个BigDecimal是否相等
      */
@@ -251,12 +417,122 @@ public class CheckUtils {
         if (isNull(number)) {
             return false;
         }
-        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte
+            || number instanceof BigInteger) {
             return false;
         }
+        if (number instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) number;
+            return decimal.signum() != 0 && decimal.stripTrailingZeros().scale() > 0;
+        }
         return Math.abs(number.doubleValue() % 1) > 0;
     }
 
+    /**
+     * 数组中满足条件的元素数量，比如{@code CheckUtils.count(scores, s -> s > 0)}
+     * @return 数组为null时为0
+     */
+    public static int count(int[] values, IntPredicate predicate) {
+        if (values == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int value : values) {
+            if (predicate.test(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 数组中满足条件的元素数量
+     * @return 数组为null时为0
+     */
+    public static int count(long[] values, LongPredicate predicate) {
+        if (values == null) {
+            return 0;
+        }
+        int count = 0;
+        for (long value : values) {
+            if (predicate.test(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 数组中满足条件的元素数量
+     * @return 数组为null时为0
+     */
+    public static int count(double[] values, DoublePredicate predicate) {
+        if (values == null) {
+            return 0;
+        }
+        int count = 0;
+        for (double value : values) {
+            if (predicate.test(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 数组中满足条件的元素，按原顺序组成新数组，比如{@code CheckUtils.filter(scores, CheckUtils::moreThanZero)}
+     * @return 数组为null时为空数组
+     */
+    public static int[] filter(int[] values, IntPredicate predicate) {
+        if (values == null) {
+            return new int[0];
+        }
+        int[] result = new int[values.length];
+        int size = 0;
+        for (int value : values) {
+            if (predicate.test(value)) {
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 数组中满足条件的元素，按原顺序组成新数组
+     * @return 数组为null时为空数组
+     */
+    public static long[] filter(long[] values, LongPredicate predicate) {
+        if (values == null) {
+            return new long[0];
+        }
+        long[] result = new long[values.length];
+        int size = 0;
+        for (long value : values) {
+            if (predicate.test(value)) {
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 数组中满足条件的元素，按原顺序组成新数组
+     * @return 数组为null时为空数组
+     */
+    public static double[] filter(double[] values, DoublePredicate predicate) {
+        if (values == null) {
+            return new double[0];
+        }
+        double[] result = new double[values.length];
+        int size = 0;
+        for (double value : values) {
+            if (predicate.test(value)) {
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
     /*************************************** Time ******************************************/
 
     /**
@@ -287,18 +563,63 @@ public class CheckUtils {
 
     /**
      * 时间点是否在Now()之前
-     * @return before(localDateTime, LocalDateTime.now())
+     * @return before(localDateTime, now)，now来自{@link #getClock()}
      */
     public static boolean beforeNow(LocalDateTime localDateTime) {
-        return before(localDateTime, LocalDateTime.now());
+        return before(localDateTime, now());
     }
 
     /**
      * 时间点是否在Now()之后
-     * @return after(localDateTime, LocalDateTime.now())
+     * @return after(localDateTime, now)，now来自{@link #getClock()}
      */
     public static boolean afterNow(LocalDateTime localDateTime) {
-        return after(localDateTime, LocalDateTime.now());
+        return after(localDateTime, now());
+    }
+
+    /**
+     * 时间戳是否在Now()之前，不会创建任何对象
+     * @param epochMillis 毫秒时间戳
+     * @return epochMillis &lt; clock.millis()
+     */
+    public static boolean beforeNow(long epochMillis) {
+        Clock c = clock;
+        return epochMillis < (c != null ? c.millis() : System.currentTimeMillis());
+    }
+
+    /**
+     * 时间戳是否在Now()之后，不会创建任何对象
+     * @param epochMillis 毫秒时间戳
+     * @return epochMillis &gt; clock.millis()
+     */
+    public static boolean afterNow(long epochMillis) {
+        Clock c = clock;
+        return epochMillis > (c != null ? c.millis() : System.currentTimeMillis());
+    }
+
+    /**
+     * 设置beforeNow、afterNow使用的时钟
+     * <p>比如大量调用时使用{@link CoarseClock}减少读取系统时钟，测试时使用{@link ManualClock}控制时间</p>
+     * @param clock 时钟，为null时恢复为系统时钟
+     */
+    public static void setClock(@Nullable Clock clock) {
+        CheckUtils.clock = clock;
+    }
+
+    /**
+     * beforeNow、afterNow使用的时钟
+     */
+    public static Clock getClock() {
+        Clock c = clock;
+        return c != null ? c : Clock.systemDefaultZone();
+    }
+
+    private static LocalDateTime now() {
+        Clock c = clock;
+        if (c == null) {
+            return LocalDateTime.now();
+        }
+        return c instanceof CoarseClock ? ((CoarseClock) c).localDateTime() : LocalDateTime.now(c);
     }
 
 
@@ -307,34 +628,14 @@ public class CheckUtils {
     /**
      * 是否为有效数据，判断有效数据的逻辑如下：
      * <p>(Any) isNotNull</p>
-     * <p>(Validatable) valid()</p>
      * <p>(String) isNotBlank</p>
      * <p>(Collection) isNotEmpty</p>
      * <p>(Map) isNotEmpty</p>
+     * <p>(Validatable) valid()</p>
+     * <p>可以通过{@link ValidityRegistry#register}为其他类型注册判断逻辑</p>
      */
     public static <T> boolean isValid(T o) {
-        // 基础判空
-        if (isNull(o)) {
-            return false;
-        }
-        // String
-        if (o instanceof String) {
-            return CheckUtils.isNotBlank((String) o);
-        }
-        // Collection
-        if (o instanceof Collection) {
-            return CheckUtils.isNotEmpty((Collection<?>) o);
-        }
-        // Map
-        if (o instanceof Map) {
-            return CheckUtils.isNotEmpty((Map<?, ?>) o);
-        }
-        // Validatable类
-        if (o instanceof Validatable) {
-            return ((Validatable) o).valid();
-        }
-
-        return true;
+        return ValidityRegistry.isValid(o);
     }
 
     /**
@@ -381,6 +682,132 @@ public class CheckUtils {
         return false;
     }
 
+    /**
+     * 是否全部为有效数据，数量超过{@link #PARALLEL_THRESHOLD}时使用ForkJoin公共池并行校验，发现无效数据后其余分片会尽快停止
+     * <p>并行时valid()会在其他线程中执行，只适合线程安全且不依赖ThreadLocal（比如MDC）的校验逻辑</p>
+     * <p>非RandomAccess的List按Iterable顺序校验</p>
+     * @see #allElementValid(Iterable)
+     */
+    public static <T> boolean allElementValidParallel(List<T> list) {
+        if (!(list instanceof RandomAccess)) {
+            return allElementValid(list);
+        }
+        return indexes(list.size()).noneMatch(i -> notValid(list.get(i)));
+    }
+
+    /**
+     * 是否存在有效数据，数量超过{@link #PARALLEL_THRESHOLD}时并行校验，发现有效数据后其余分片会尽快停止
+     * <p>并行时valid()会在其他线程中执行，只适合线程安全且不依赖ThreadLocal（比如MDC）的校验逻辑</p>
+     * <p>非RandomAccess的List按Iterable顺序校验</p>
+     * @see #anyElementValid(Iterable)
+     */
+    public static <T> boolean anyElementValidParallel(List<T> list) {
+        if (!(list instanceof RandomAccess)) {
+            return anyElementValid(list);
+        }
+        return indexes(list.size()).anyMatch(i -> isValid(list.get(i)));
+    }
+
+    /**
+     * 是否全部为有效数据，数量超过{@link #PARALLEL_THRESHOLD}时并行校验
+     * @see #allElementValidParallel(List)
+     */
+    public static <T> boolean allElementValidParallel(T[] array) {
+        return indexes(array.length).noneMatch(i -> notValid(array[i]));
+    }
+
+    /**
+     * 是否存在有效数据，数量超过{@link #PARALLEL_THRESHOLD}时并行校验
+     * @see #anyElementValidParallel(List)
+     */
+    public static <T> boolean anyElementValidParallel(T[] array) {
+        return indexes(array.length).anyMatch(i -> isValid(array[i]));
+    }
+
+    /**
+     * 是否全部为有效数据，估算数量超过{@link #PARALLEL_THRESHOLD}时按spliterator的切分并行校验
+     * @see #allElementValidParallel(List)
+     */
+    public static <T> boolean allElementValidParallel(Spliterator<T> spliterator) {
+        return StreamSupport.stream(spliterator, spliterator.estimateSize() > PARALLEL_THRESHOLD).noneMatch(CheckUtils::notValid);
+    }
+
+    /**
+     * 是否存在有效数据，估算数量超过{@link #PARALLEL_THRESHOLD}时按spliterator的切分并行校验
+     * @see #anyElementValidParallel(List)
+     */
+    public static <T> boolean anyElementValidParallel(Spliterator<T> spliterator) {
+        return StreamSupport.stream(spliterator, spliterator.estimateSize() > PARALLEL_THRESHOLD).anyMatch(CheckUtils::isValid);
+    }
+
+    /**
+     * 无效数据的下标，在调用者线程中顺序校验
+     * <p>非RandomAccess的List会先复制为数组</p>
+     * @return 第i个元素无效时第i位为1
+     */
+    public static <T> BitSet invalidIndexes(List<T> list) {
+        if (!(list instanceof RandomAccess)) {
+            return invalidIndexes(list.toArray());
+        }
+        return BitSet.valueOf(mask(list.size(), false, i -> notValid(list.get(i))));
+    }
+
+    /**
+     * 无效数据的下标，在调用者线程中顺序校验
+     * @return 第i个元素无效时第i位为1
+     */
+    public static <T> BitSet invalidIndexes(T[] array) {
+        return BitSet.valueOf(mask(array.length, false, i -> notValid(array[i])));
+    }
+
+    /**
+     * 无效数据的下标，数量超过{@link #PARALLEL_THRESHOLD}时按64的整数倍切分并行校验
+     * <p>并行时valid()会在其他线程中执行，只适合线程安全且不依赖ThreadLocal（比如MDC）的校验逻辑</p>
+     * <p>非RandomAccess的List会先复制为数组</p>
+     * @return 第i个元素无效时第i位为1
+     */
+    public static <T> BitSet invalidIndexesParallel(List<T> list) {
+        if (!(list instanceof RandomAccess)) {
+            return invalidIndexesParallel(list.toArray());
+        }
+        return BitSet.valueOf(mask(list.size(), true, i -> notValid(list.get(i))));
+    }
+
+    /**
+     * 无效数据的下标，数量超过{@link #PARALLEL_THRESHOLD}时按64的整数倍切分并行校验
+     * @return 第i个元素无效时第i位为1
+     * @see #invalidIndexesParallel(List)
+     */
+    public static <T> BitSet invalidIndexesParallel(T[] array) {
+        return BitSet.valueOf(mask(array.length, true, i -> notValid(array[i])));
+    }
+
+    private static IntStream indexes(int size) {
+        IntStream indexes = IntStream.range(0, size);
+        return size > PARALLEL_THRESHOLD ? indexes.parallel() : indexes;
+    }
+
+    /**
+     * 满足条件的下标组成的位图（long[]，第i位对应第i个元素），parallel且超过{@link #PARALLEL_THRESHOLD}时按64的整数倍切分并行，
+     * 每个分片写入不同的word，不需要同步
+     */
+    private static long[] mask(int size, boolean parallel, IntPredicate hit) {
+        long[] words = new long[(size + 63) >>> 6];
+        int chunkWords = PARALLEL_THRESHOLD >>> 6;
+        int chunks = (words.length + chunkWords - 1) / chunkWords;
+        IntStream chunkIndexes = IntStream.range(0, chunks);
+        (parallel && size > PARALLEL_THRESHOLD ? chunkIndexes.parallel() : chunkIndexes).forEach(c -> {
+            int from = c * chunkWords << 6;
+            int to = (int) Math.min(size, (long) (c + 1) * chunkWords << 6);
+            for (int i = from; i < to; i++) {
+                if (hit.test(i)) {
+                    words[i >>> 6] |= 1L << i;
+                }
+            }
+        });
+        return words;
+    }
+
     /*************************************** Field ******************************************/
 
     /**
@@ -391,11 +818,22 @@ public class CheckUtils {
     }
 
     /**
-     * 多个字段不为空
+     * 多个字段不为空，为null的函数会被跳过，返回的校验器可以复用；需要知道哪个字段不通过时请使用{@link FieldValidator}
      */
     @SafeVarargs
     public static <T, R> Predicate<T> fieldNotNull(Function<T, R>... getFieldFuns) {
-        return Safer.stream(getFieldFuns).map(CheckUtils::fieldNotNull).reduce(Predicate::and).orElse(o -> Boolean.FALSE);
+        if (getFieldFuns == null || getFieldFuns.length == 0) {
+            return o -> Boolean.FALSE;
+        }
+        FieldValidator.Builder<T> builder = FieldValidator.builder();
+        for (Function<T, R> getFieldFun : getFieldFuns) {
+            // 与Safer.stream一致，跳过为null的函数
+            if (getFieldFun != null) {
+                builder.notNull(getFieldFun);
+            }
+        }
+        FieldValidator<T> validator = builder.build();
+        return validator.size() == 0 ? o -> Boolean.FALSE : validator;
     }
 
     /**
@@ -406,16 +844,119 @@ public class CheckUtils {
     }
 
     /**
-     * 多个字段有效
+     * 多个字段有效，为null的函数会被跳过，返回的校验器可以复用；需要知道哪个字段不通过时请使用{@link FieldValidator}
      */
     @SafeVarargs
     public static <T, R> Predicate<T> fieldValid(Function<T, R>... getFieldFuns) {
-        return Safer.stream(getFieldFuns).map(CheckUtils::fieldValid).reduce(Predicate::and).orElse(o -> Boolean.FALSE);
+        if (getFieldFuns == null || getFieldFuns.length == 0) {
+            return o -> Boolean.FALSE;
+        }
+        FieldValidator.Builder<T> builder = FieldValidator.builder();
+        for (Function<T, R> getFieldFun : getFieldFuns) {
+            // 与Safer.stream一致，跳过为null的函数
+            if (getFieldFun != null) {
+                builder.valid(getFieldFun);
+            }
+        }
+        FieldValidator<T> validator = builder.build();
+        return validator.size() == 0 ? o -> Boolean.FALSE : validator;
     }
 
 
 
 
+    /*************************************** Mask ******************************************/
+
+    /**
+     * 一次扫描得到所有null元素的位置，适合批量写入前按列检查
+     * @return 第i个元素为null时第i位为1；数组为null时为空
+     */
+    public static BitSet nullMask(Object[] array) {
+        return BitSet.valueOf(nullMaskWords(array));
+    }
+
+    /**
+     * 一次扫描得到所有null元素的位置，非RandomAccess的List会先复制为数组
+     * @return 第i个元素为null时第i位为1；列表为null时为空
+     */
+    public static BitSet nullMask(List<?> list) {
+        if (list == null) {
+            return new BitSet();
+        }
+        if (!(list instanceof RandomAccess)) {
+            return nullMask(list.toArray());
+        }
+        return BitSet.valueOf(mask(list.size(), true, i -> list.get(i) == null));
+    }
+
+    /**
+     * 一次扫描得到所有空字符串（广义）的位置
+     * @return 第i个字符串{@link #isBlank(String)}时第i位为1；数组为null时为空
+     */
+    public static BitSet blankMask(String[] array) {
+        return BitSet.valueOf(blankMaskWords(array));
+    }
+
+    /**
+     * 一次扫描得到所有空字符串（广义）的位置，非RandomAccess的List会先复制为数组
+     * @return 第i个字符串{@link #isBlank(String)}时第i位为1；列表为null时为空
+     */
+    public static BitSet blankMask(List<String> list) {
+        if (list == null) {
+            return new BitSet();
+        }
+        if (!(list instanceof RandomAccess)) {
+            return blankMask(list.toArray(new String[0]));
+        }
+        return BitSet.valueOf(mask(list.size(), true, i -> isBlank(list.get(i))));
+    }
+
+    /**
+     * 与{@link #nullMask(Object[])}相同，返回长度为(length + 63) / 64的位图，可以直接用于按word过滤
+     */
+    public static long[] nullMaskWords(Object[] array) {
+        if (array == null) {
+            return new long[0];
+        }
+        return mask(array.length, true, i -> array[i] == null);
+    }
+
+    /**
+     * 与{@link #blankMask(String[])}相同，返回长度为(length + 63) / 64的位图
+     */
+    public static long[] blankMaskWords(String[] array) {
+        if (array == null) {
+            return new long[0];
+        }
+        return mask(array.length, true, i -> isBlank(array[i]));
+    }
+
+    /**
+     * 与{@link #invalidIndexes(Object[])}相同，返回长度为(length + 63) / 64的位图
+     */
+    public static long[] invalidMaskWords(Object[] array) {
+        if (array == null) {
+            return new long[0];
+        }
+        return mask(array.length, false, i -> notValid(array[i]));
+    }
+
+    /**
+     * 位图中1的数量，比如{@code cardinality(blankMaskWords(names))}为空字符串的数量，为0时表示都不为空
+     * @param mask 位图
+     * @return 1的数量，位图为null时为0
+     */
+    public static int cardinality(long[] mask) {
+        if (mask == null) {
+            return 0;
+        }
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
     /*************************************** Any ******************************************/
 
     /**
@@ -0,0 +1,141 @@
+package pl.codesafe.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * 粗粒度时钟：后台守护线程每隔一段时间更新一次当前时间，读取时只有一次volatile读，不会读取系统时钟
+ * <hr><pre>
+ * CheckUtils.setClock(CoarseClock.of(Duration.ofMillis(10)));
+ * CheckUtils.beforeNow(expireAt); // 误差不超过10ms，不再每次调用LocalDateTime.now()
+ * CheckUtils.beforeNow(expireAtMillis); // 基本类型重载，不创建任何对象</pre>
+ * <hr>
+ * <p>适合大量调用且能容忍误差（最多一个更新间隔）的场景，比如逐个事件判断是否过期</p>
+ * <p>不再使用时调用{@link #close()}停止后台线程</p>
+ * @author LiYan
+ * @see CheckUtils#setClock(Clock)
+ */
+public final class CoarseClock extends Clock implements AutoCloseable {
+
+    private final ZoneId zone;
+
+    private final ScheduledExecutorService ticker;
+
+    private volatile long millis;
+
+    private volatile LocalDateTime localDateTime;
+
+    private CoarseClock(long tickMillis, ZoneId zone) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick interval must be positive, but was " + tickMillis + "ms");
+        }
+        this.zone = Objects.requireNonNull(zone);
+        tick();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "coarse-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 使用系统默认时区
+     * @param tickInterval 更新间隔
+     * @return 已经启动的粗粒度时钟
+     */
+    public static CoarseClock of(@Nonnull Duration tickInterval) {
+        return of(tickInterval, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param tickInterval 更新间隔
+     * @param zone 时区，用于{@link #localDateTime()}
+     * @return 已经启动的粗粒度时钟
+     */
+    public static CoarseClock of(@Nonnull Duration tickInterval, @Nonnull ZoneId zone) {
+        return new CoarseClock(tickInterval.toMillis(), zone);
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        localDateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), zone);
+        millis = now;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    /**
+     * 缓存的当前时间，每次更新时创建一次
+     */
+    public LocalDateTime localDateTime() {
+        return localDateTime;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 返回使用另一个时区的时钟，时间仍来自该粗粒度时钟
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        if (zone.equals(this.zone)) {
+            return this;
+        }
+        CoarseClock source = this;
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return zone;
+            }
+
+            @Override
+            public Clock withZone(ZoneId other) {
+                return source.withZone(other);
+            }
+
+            @Override
+            public long millis() {
+                return source.millis();
+            }
+
+            @Override
+            public Instant instant() {
+                return source.instant();
+            }
+        };
+    }
+
+    /**
+     * 停止后台更新线程，之后时间不再变化
+     */
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "CoarseClock[" + instant() + ", " + zone + "]";
+    }
+
+}
@@ -0,0 +1,221 @@
+package pl.codesafe.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 字段校验器：把多个字段的校验规则编译成一次数组循环，遇到第一个不通过的字段即停止
+ * <hr><pre>
+ * private static final FieldValidator&lt;UserDTO&gt; USER_VALIDATOR = FieldValidator.&lt;UserDTO&gt;builder()
+ *     .notNull("id", UserDTO::getId)
+ *     .valid("name", UserDTO::getName)
+ *     .check("age", UserDTO::getAge, age -> age > 0)
+ *     .build();
+ * USER_VALIDATOR.test(dto); // 所有字段都通过时为true
+ * USER_VALIDATOR.failedField(dto); // 第一个不通过的字段名，都通过时为null
+ * Safer.stream(dtos).filter(USER_VALIDATOR); // 本身就是Predicate</pre>
+ * <hr>
+ * <li>notNull：字段不为null</li>
+ * <li>valid：字段有效，与{@link CheckUtils#isValid(Object)}一致</li>
+ * <li>check：字段不为null且满足自定义的条件</li>
+ * <p>构造后不可变，可以作为常量在多线程中复用；校验通过时不会创建任何对象</p>
+ * @author LiYan
+ * @see CheckUtils#fieldValid(Function[])
+ * @see CheckUtils#fieldNotNull(Function[])
+ */
+public final class FieldValidator<T> implements Predicate<T> {
+
+    /**
+     * {@link #firstFailure}的返回值：所有字段都通过
+     */
+    public static final int PASSED = -1;
+
+    /**
+     * {@link #firstFailure}的返回值：被校验的对象本身为null
+     */
+    public static final int NULL_OBJECT = -2;
+
+    private static final byte NOT_NULL = 0;
+
+    private static final byte VALID = 1;
+
+    private static final byte CHECK = 2;
+
+    private final Function<? super T, ?>[] accessors;
+
+    private final byte[] rules;
+
+    private final Predicate<Object>[] conditions;
+
+    private final String[] names;
+
+    @SuppressWarnings("unchecked")
+    private FieldValidator(Builder<T> builder) {
+        int size = builder.rules.size();
+        this.accessors = builder.accessors.toArray((Function<? super T, ?>[]) new Function<?, ?>[size]);
+        this.conditions = builder.conditions.toArray((Predicate<Object>[]) new Predicate<?>[size]);
+        this.names = builder.names.toArray(new String[size]);
+        this.rules = new byte[size];
+        for (int i = 0; i < size; i++) {
+            this.rules[i] = builder.rules.get(i);
+        }
+    }
+
+    /**
+     * 创建字段校验器的构造器
+     * @param <T> 被校验对象的类型
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * 对象不为null且所有字段都通过
+     */
+    @Override
+    public boolean test(T o) {
+        return firstFailure(o) == PASSED;
+    }
+
+    /**
+     * 第一个不通过的字段的序号（按添加规则的顺序，从0开始）
+     * @param o 被校验的对象
+     * @return 不通过的字段的序号；都通过时为{@link #PASSED}，对象为null时为{@link #NULL_OBJECT}
+     */
+    public int firstFailure(T o) {
+        if (o == null) {
+            return NULL_OBJECT;
+        }
+        final Function<? super T, ?>[] accessors = this.accessors;
+        final byte[] rules = this.rules;
+        for (int i = 0; i < rules.length; i++) {
+            Object value = accessors[i].apply(o);
+            boolean passed;
+            switch (rules[i]) {
+                case NOT_NULL:
+                    passed = value != null;
+                    break;
+                case VALID:
+                    passed = ValidityRegistry.isValid(value);
+                    break;
+                default:
+                    passed = value != null && conditions[i].test(value);
+                    break;
+            }
+            if (!passed) {
+                return i;
+            }
+        }
+        return PASSED;
+    }
+
+    /**
+     * 第一个不通过的字段名
+     * @param o 被校验的对象
+     * @return 不通过的字段名，都通过时为null；对象为null时为"null"
+     */
+    @Nullable
+    public String failedField(T o) {
+        int index = firstFailure(o);
+        if (index == PASSED) {
+            return null;
+        }
+        return index == NULL_OBJECT ? "null" : names[index];
+    }
+
+    /**
+     * 规则的数量
+     */
+    public int size() {
+        return rules.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FieldValidator[");
+        for (int i = 0; i < rules.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append(rules[i] == NOT_NULL ? ":notNull" : rules[i] == VALID ? ":valid" : ":check");
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * {@link FieldValidator}的构造器，规则按添加的顺序校验，获取字段的函数不能为null
+     */
+    public static final class Builder<T> {
+
+        private final List<Function<? super T, ?>> accessors = new ArrayList<>();
+
+        private final List<Byte> rules = new ArrayList<>();
+
+        private final List<Predicate<Object>> conditions = new ArrayList<>();
+
+        private final List<String> names = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 字段不为null，字段名为"field" + 序号
+         */
+        public Builder<T> notNull(@Nonnull Function<? super T, ?> getFieldFun) {
+            return add(null, getFieldFun, NOT_NULL, null);
+        }
+
+        /**
+         * 字段不为null
+         */
+        public Builder<T> notNull(String name, @Nonnull Function<? super T, ?> getFieldFun) {
+            return add(name, getFieldFun, NOT_NULL, null);
+        }
+
+        /**
+         * 字段有效，字段名为"field" + 序号
+         * @see CheckUtils#isValid(Object)
+         */
+        public Builder<T> valid(@Nonnull Function<? super T, ?> getFieldFun) {
+            return add(null, getFieldFun, VALID, null);
+        }
+
+        /**
+         * 字段有效
+         * @see CheckUtils#isValid(Object)
+         */
+        public Builder<T> valid(String name, @Nonnull Function<? super T, ?> getFieldFun) {
+            return add(name, getFieldFun, VALID, null);
+        }
+
+        /**
+         * 字段不为null且满足条件
+         * @param name 字段名
+         * @param getFieldFun 获取字段的函数
+         * @param condition 条件，传入的字段不为null
+         */
+        @SuppressWarnings("unchecked")
+        public <R> Builder<T> check(String name, @Nonnull Function<? super T, ? extends R> getFieldFun,
+                                    @Nonnull Predicate<? super R> condition) {
+            return add(name, getFieldFun, CHECK, (Predicate<Object>) Objects.requireNonNull(condition));
+        }
+
+        public FieldValidator<T> build() {
+            return new FieldValidator<>(this);
+        }
+
+        private Builder<T> add(String name, Function<? super T, ?> getFieldFun, byte rule, Predicate<Object> condition) {
+            accessors.add(Objects.requireNonNull(getFieldFun));
+            names.add(name != null ? name : "field" + rules.size());
+            rules.add(rule);
+            conditions.add(condition);
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package pl.codesafe.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * 手动控制的时钟，时间只会在调用{@link #set}、{@link #advance}时变化，适合测试与时间相关的逻辑
+ * <hr><pre>
+ * ManualClock clock = ManualClock.of(Instant.parse("2020-01-01T00:00:00Z"));
+ * CheckUtils.setClock(clock);
+ * CheckUtils.beforeNow(expireAt); // false
+ * clock.advance(Duration.ofDays(1));
+ * CheckUtils.beforeNow(expireAt); // true</pre>
+ * <hr>
+ * @author LiYan
+ * @see CheckUtils#setClock(Clock)
+ */
+public final class ManualClock extends Clock {
+
+    private final ZoneId zone;
+
+    private volatile long millis;
+
+    private ManualClock(long millis, ZoneId zone) {
+        this.millis = millis;
+        this.zone = Objects.requireNonNull(zone);
+    }
+
+    /**
+     * 从当前时间开始，使用系统默认时区
+     */
+    public static ManualClock of() {
+        return of(Instant.now());
+    }
+
+    /**
+     * 从指定时间开始，使用系统默认时区
+     */
+    public static ManualClock of(@Nonnull Instant instant) {
+        return of(instant, ZoneId.systemDefault());
+    }
+
+    /**
+     * 从指定时间开始，使用指定时区
+     */
+    public static ManualClock of(@Nonnull Instant instant, @Nonnull ZoneId zone) {
+        return new ManualClock(instant.toEpochMilli(), zone);
+    }
+
+    /**
+     * 设置当前时间
+     */
+    public synchronized ManualClock set(@Nonnull Instant instant) {
+        this.millis = instant.toEpochMilli();
+        return this;
+    }
+
+    /**
+     * 时间前进（为负数时后退）
+     */
+    public synchronized ManualClock advance(@Nonnull Duration duration) {
+        this.millis += duration.toMillis();
+        return this;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 返回使用另一个时区的独立时钟，时间从当前时间开始
+     */
+    @Override
+    public ManualClock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new ManualClock(millis, zone);
+    }
+
+    @Override
+    public String toString() {
+        return "ManualClock[" + instant() + ", " + zone + "]";
+    }
+
+}
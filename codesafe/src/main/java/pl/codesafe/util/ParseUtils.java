@@ -12,6 +12,12 @@ import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import pl.codesafe.Opt;
+import pl.codesafe.OptDouble;
+import pl.codesafe.OptDoubleColumn;
+import pl.codesafe.OptInt;
+import pl.codesafe.OptIntColumn;
+import pl.codesafe.OptLong;
+import pl.codesafe.OptLongColumn;
 import pl.codesafe.SafeOperator;
 import pl.codesafe.SafeOperator.SaferManager;
 import pl.codesafe.Safer;
@@ -22,6 +28,7 @@ import pl.codesafe.enums.ClassEnum;
  * <hr>
  * <li>所有以parse开头的方法，在解析失败或异常时，均返回null</li>
  * <li>所有以opt开头的方法，都是对parse方法的封装，用于无法直接接收null的情况</li>
+ * <li>optInt、optLong、optDouble返回不装箱的{@link OptInt}、{@link OptLong}、{@link OptDouble}</li>
  * @see Opt
  * @author LiYan
  */
@@ -159,17 +166,22 @@ public class ParseUtils {
     /**
      * String 转 Double
      * @param s string
-     * @return Opt&lt;Double&gt;
+     * @return OptDouble，解析时不会装箱
      * <p>
      * <p>optDouble("1.2").orElse(1.0D); // 1.2D
      * <p>optDouble("str").orElse(1.0D); // 1.0D
      * <p>optDouble(null).orElse(0.0D); // 0.0D
      * <p>optDouble("-1.0").filter(s -> s > 0).orElse(0.0D); // 0.0D
      *
-     * @see Opt
+     * @see OptDouble
      */
-    public static Opt<Double> optDouble(String s) {
-        return Opt.of(parseDouble(s));
+    public static OptDouble optDouble(String s) {
+        try {
+            return OptDouble.of(Double.parseDouble(s));
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return OptDouble.empty();
     }
 
     /**
@@ -211,17 +223,22 @@ public class ParseUtils {
     /**
      * String 转 Integer
      * @param s string
-     * @return Opt&lt;Integer&gt;
+     * @return OptInt，解析时不会装箱
      * <p>
      * <p>optInt("1").orElse(0); // 1
      * <p>optInt("str").orElse(0); // 0
      * <p>optInt(null).orElse(-1); // -1
      * <p>optInt("-1").filter(s -> s > 0).orElse(0); // 0
      *
-     * @see Opt
+     * @see OptInt
      */
-    public static Opt<Integer> optInt(String s) {
-        return Opt.of(parseInt(s));
+    public static OptInt optInt(String s) {
+        try {
+            return OptInt.of(Integer.parseInt(s));
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return OptInt.empty();
     }
 
     /**
@@ -238,17 +255,22 @@ public class ParseUtils {
      * String 转 Long
      *
      * @param s string
-     * @return Opt&lt;Long&gt;
+     * @return OptLong，解析时不会装箱
      * <p>
      * <p>optLong("1").orElse(0L); // 1L
      * <p>optLong("str").orElse(0L); // 0L
      * <p>optLong(null).orElse(-1L); // -1L
      * <p>optLong("-1").filter(s -> s > 0).orElse(0L); // 0L
      *
-     * @see Opt
+     * @see OptLong
      */
-    public static Opt<Long> optLong(String s) {
-        return Opt.of(parseLong(s));
+    public static OptLong optLong(String s) {
+        try {
+            return OptLong.of(Long.parseLong(s));
+        } catch (Throwable t) {
+            SAFER.handleException(t);
+        }
+        return OptLong.empty();
     }
 
     /**
@@ -273,6 +295,111 @@ public class ParseUtils {
         return Opt.of(parseBigDecimal(s));
     }
 
+    /**
+     * 批量解析为int列，不会为每个元素装箱或创建Opt
+     * <p>null和空字符串的行直接视为无效；其余解析失败的行视为无效，异常交给异常处理器处理</p>
+     * @param strs 要解析的字符串
+     * @return OptIntColumn，strs为null时返回空列
+     */
+    public static OptIntColumn parseIntColumn(String[] strs) {
+        if (strs == null) {
+            return OptIntColumn.of(new int[0]);
+        }
+        int[] values = new int[strs.length];
+        long[] validity = new long[(strs.length + 63) >>> 6];
+        for (int i = 0; i < strs.length; i++) {
+            String s = strs[i];
+            if (s == null || s.isEmpty()) {
+                continue;
+            }
+            try {
+                values[i] = Integer.parseInt(s);
+                validity[i >>> 6] |= 1L << i;
+            } catch (Throwable t) {
+                SAFER.handleException(t);
+            }
+        }
+        return OptIntColumn.of(values, validity);
+    }
+
+    /**
+     * 批量解析为int列
+     * @see #parseIntColumn(String[])
+     */
+    public static OptIntColumn parseIntColumn(Collection<String> strs) {
+        return parseIntColumn(strs == null ? null : strs.toArray(new String[0]));
+    }
+
+    /**
+     * 批量解析为long列，不会为每个元素装箱或创建Opt
+     * <p>null和空字符串的行直接视为无效；其余解析失败的行视为无效，异常交给异常处理器处理</p>
+     * @param strs 要解析的字符串
+     * @return OptLongColumn，strs为null时返回空列
+     */
+    public static OptLongColumn parseLongColumn(String[] strs) {
+        if (strs == null) {
+            return OptLongColumn.of(new long[0]);
+        }
+        long[] values = new long[strs.length];
+        long[] validity = new long[(strs.length + 63) >>> 6];
+        for (int i = 0; i < strs.length; i++) {
+            String s = strs[i];
+            if (s == null || s.isEmpty()) {
+                continue;
+            }
+            try {
+                values[i] = Long.parseLong(s);
+                validity[i >>> 6] |= 1L << i;
+            } catch (Throwable t) {
+                SAFER.handleException(t);
+            }
+        }
+        return OptLongColumn.of(values, validity);
+    }
+
+    /**
+     * 批量解析为long列
+     * @see #parseLongColumn(String[])
+     */
+    public static OptLongColumn parseLongColumn(Collection<String> strs) {
+        return parseLongColumn(strs == null ? null : strs.toArray(new String[0]));
+    }
+
+    /**
+     * 批量解析为double列，不会为每个元素装箱或创建Opt
+     * <p>null和空字符串的行直接视为无效；其余解析失败的行视为无效，异常交给异常处理器处理</p>
+     * @param strs 要解析的字符串
+     * @return OptDoubleColumn，strs为null时返回空列
+     */
+    public static OptDoubleColumn parseDoubleColumn(String[] strs) {
+        if (strs == null) {
+            return OptDoubleColumn.of(new double[0]);
+        }
+        double[] values = new double[strs.length];
+        long[] validity = new long[(strs.length + 63) >>> 6];
+        for (int i = 0; i < strs.length; i++) {
+            String s = strs[i];
+            if (s == null || s.isEmpty()) {
+                continue;
+            }
+            try {
+                values[i] = Double.parseDouble(s);
+                validity[i >>> 6] |= 1L << i;
+            } catch (Throwable t) {
+                SAFER.handleException(t);
+            }
+        }
+        return OptDoubleColumn.of(values, validity);
+    }
+
+    /**
+     * 批量解析为double列
+     * @see #parseDoubleColumn(String[])
+     */
+    public static OptDoubleColumn parseDoubleColumn(Collection<String> strs) {
+        return parseDoubleColumn(strs == null ? null : strs.toArray(new String[0]));
+    }
+
     /**
      * collection 转 HashMap
      * @param collection 集合
@@ -0,0 +1,131 @@
+package pl.codesafe.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+
+/**
+ * 按对象引用缓存校验结果，用于不能继承{@link pl.abstracts.validate.CachedValidatable}的第三方不可变类型
+ * <hr><pre>
+ * // 为某个类型的有效性判断加上缓存，CheckUtils.isValid、Safer.validStream、fieldValid都会使用
+ * ValidityRegistry.memoize(ThirdPartyAddress.class);
+ * // 或者单独包装一个判断逻辑
+ * Predicate&lt;Address&gt; valid = ValidityCache.memoize(address -> ZIP_PATTERN.matcher(address.getZip()).matches());</pre>
+ * <hr>
+ * <p>以对象的引用（而不是equals）作为key，key是弱引用，对象被回收后缓存也会被清理</p>
+ * <p>只适合不可变对象：对象的状态变化后，缓存的结果不会更新</p>
+ * @author LiYan
+ */
+public final class ValidityCache<T> implements Predicate<T> {
+
+    private final Predicate<? super T> validator;
+
+    /**
+     * key是{@link IdentityWeakKey}，查询时使用{@link LookupKey}
+     */
+    private final ConcurrentHashMap<Object, Boolean> results = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    private ValidityCache(Predicate<? super T> validator) {
+        this.validator = Objects.requireNonNull(validator);
+    }
+
+    /**
+     * 为判断逻辑加上按对象引用的缓存
+     * @param validator 判断逻辑
+     * @param <T> 被判断对象的类型
+     * @return 带缓存的判断逻辑；判断null时不缓存，直接交给validator
+     */
+    public static <T> ValidityCache<T> memoize(@Nonnull Predicate<? super T> validator) {
+        return new ValidityCache<>(validator);
+    }
+
+    @Override
+    public boolean test(T o) {
+        if (o == null) {
+            return validator.test(null);
+        }
+        Boolean cached = results.get(new LookupKey(o));
+        if (cached != null) {
+            return cached;
+        }
+        boolean valid = validator.test(o);
+        expungeStaleEntries();
+        results.put(new IdentityWeakKey(o, queue), valid);
+        return valid;
+    }
+
+    /**
+     * 当前缓存的数量（可能包含已被回收但还没有清理的对象）
+     */
+    public int size() {
+        return results.size();
+    }
+
+    private void expungeStaleEntries() {
+        Object stale;
+        while ((stale = queue.poll()) != null) {
+            results.remove(stale);
+        }
+    }
+
+    /**
+     * 按引用比较的弱引用key，被回收后只与自身相等
+     */
+    private static final class IdentityWeakKey extends WeakReference<Object> {
+
+        private final int hash;
+
+        IdentityWeakKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            Object referent = get();
+            if (obj instanceof LookupKey) {
+                return referent != null && referent == ((LookupKey) obj).referent;
+            }
+            return obj instanceof IdentityWeakKey && referent != null && referent == ((IdentityWeakKey) obj).get();
+        }
+    }
+
+    /**
+     * 查询用的key，不是Reference，只在查询期间使用；与引用同一个对象的{@link IdentityWeakKey}相等
+     */
+    private static final class LookupKey {
+
+        private final Object referent;
+
+        LookupKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof IdentityWeakKey) {
+                return referent == ((IdentityWeakKey) obj).get();
+            }
+            return obj instanceof LookupKey && referent == ((LookupKey) obj).referent;
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+package pl.codesafe.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import pl.abstracts.validate.Validatable;
+
+/**
+ * {@link CheckUtils#isValid(Object)}使用的有效性判断注册表，按对象的具体类型缓存判断逻辑，每次判断只需要一次查找
+ * <hr><pre>
+ * // 第三方类型不能实现Validatable时，注册自定义的判断逻辑
+ * ValidityRegistry.register(Money.class, money -> money.getAmount() != null);
+ * CheckUtils.isValid(money);
+ * Safer.validStream(moneys); // 同样生效</pre>
+ * <hr>
+ * <p>判断逻辑的查找顺序：</p>
+ * <li>注册的判断逻辑：先找类型本身，再沿父类向上查找，每一级之后广度优先查找该类实现的接口及其父接口</li>
+ * <li>String：isNotBlank</li>
+ * <li>Collection：isNotEmpty</li>
+ * <li>Map：isNotEmpty</li>
+ * <li>Validatable：valid()</li>
+ * <li>其他类型：非null即有效</li>
+ * <p>注册后会替换整个缓存，适合在启动时注册</p>
+ * <p>不可变类型的判断逻辑较重时，可以通过{@link #memoize}按对象缓存判断结果</p>
+ * @author LiYan
+ */
+public final class ValidityRegistry {
+
+    private static final Predicate<Object> STRING = o -> CheckUtils.isNotBlank((String) o);
+
+    private static final Predicate<Object> COLLECTION = o -> !((Collection<?>) o).isEmpty();
+
+    private static final Predicate<Object> MAP = o -> !((Map<?, ?>) o).isEmpty();
+
+    private static final Predicate<Object> VALIDATABLE = o -> ((Validatable) o).valid();
+
+    private static final Predicate<Object> ALWAYS = o -> true;
+
+    /**
+     * 注册的判断逻辑，写时复制
+     */
+    private static volatile Map<Class<?>, Predicate<Object>> registered = new HashMap<>();
+
+    private static volatile ClassValue<Predicate<Object>> strategies = newStrategies(registered);
+
+    private ValidityRegistry() {
+    }
+
+    /**
+     * 注册某个类型（及其子类型）的有效性判断逻辑，优先于内置的判断逻辑
+     * @param type 类型
+     * @param validator 判断逻辑，传入的对象不为null
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> void register(@Nonnull Class<T> type, @Nonnull Predicate<? super T> validator) {
+        Objects.requireNonNull(validator);
+        Map<Class<?>, Predicate<Object>> next = new HashMap<>(registered);
+        next.put(Objects.requireNonNull(type), (Predicate<Object>) validator);
+        update(next);
+    }
+
+    /**
+     * 为某个类型（及其子类型）当前的判断逻辑加上按对象引用的缓存，同一个对象只判断一次
+     * <p>只适合不可变类型；能修改源码的类型请继承{@link pl.abstracts.validate.CachedValidatable}</p>
+     * @param type 类型
+     * @see ValidityCache
+     */
+    public static synchronized <T> void memoize(@Nonnull Class<T> type) {
+        Predicate<Object> current = strategyFor(type);
+        if (!(current instanceof ValidityCache)) {
+            register(type, ValidityCache.memoize(current));
+        }
+    }
+
+    /**
+     * 移除某个类型注册的判断逻辑
+     * @param type 类型
+     */
+    public static synchronized void unregister(@Nonnull Class<?> type) {
+        if (registered.containsKey(type)) {
+            Map<Class<?>, Predicate<Object>> next = new HashMap<>(registered);
+            next.remove(type);
+            update(next);
+        }
+    }
+
+    /**
+     * 是否为有效数据
+     * @param o 任意对象
+     * @return null时为false，否则按类型对应的判断逻辑判断
+     */
+    public static boolean isValid(Object o) {
+        return o != null && strategies.get(o.getClass()).test(o);
+    }
+
+    /**
+     * 获取某个类型的判断逻辑
+     * @param type 类型
+     * @return 判断逻辑，传入的对象不能为null
+     */
+    public static Predicate<Object> strategyFor(@Nonnull Class<?> type) {
+        return strategies.get(type);
+    }
+
+    private static void update(Map<Class<?>, Predicate<Object>> next) {
+        registered = next;
+        strategies = newStrategies(next);
+    }
+
+    private static ClassValue<Predicate<Object>> newStrategies(Map<Class<?>, Predicate<Object>> registered) {
+        return new ClassValue<Predicate<Object>>() {
+            @Override
+            protected Predicate<Object> computeValue(Class<?> type) {
+                return resolve(type, registered);
+            }
+        };
+    }
+
+    private static Predicate<Object> resolve(Class<?> type, Map<Class<?>, Predicate<Object>> registered) {
+        if (!registered.isEmpty()) {
+            Set<Class<?>> visited = new HashSet<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                Predicate<Object> validator = registered.get(c);
+                if (validator != null) {
+                    return validator;
+                }
+                validator = resolveInterfaces(c, registered, visited);
+                if (validator != null) {
+                    return validator;
+                }
+            }
+        }
+        if (type == String.class) {
+            return STRING;
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return COLLECTION;
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return MAP;
+        }
+        if (Validatable.class.isAssignableFrom(type)) {
+            return VALIDATABLE;
+        }
+        return ALWAYS;
+    }
+
+    /**
+     * 广度优先查找类实现的接口及其父接口，已经查找过的接口不再重复查找
+     */
+    private static Predicate<Object> resolveInterfaces(Class<?> c, Map<Class<?>, Predicate<Object>> registered,
+                                                       Set<Class<?>> visited) {
+        Deque<Class<?>> queue = new ArrayDeque<>(Arrays.asList(c.getInterfaces()));
+        Class<?> i;
+        while ((i = queue.poll()) != null) {
+            if (!visited.add(i)) {
+                continue;
+            }
+            Predicate<Object> validator = registered.get(i);
+            if (validator != null) {
+                return validator;
+            }
+            queue.addAll(Arrays.asList(i.getInterfaces()));
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,464 @@
+package pl.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import pl.abstracts.validate.annotation.NotBlank;
+import pl.abstracts.validate.annotation.NotEmpty;
+import pl.abstracts.validate.annotation.NotNull;
+import pl.abstracts.validate.annotation.Positive;
+
+/**
+ * 根据字段上的校验注解（{@link NotNull}、{@link NotBlank}、{@link NotEmpty}、{@link Positive}），
+ * 在编译时为每个类生成{@code XxxValidator.valid(xxx)}，生成的代码只有逐个字段的判断，没有反射和lambda
+ * <hr><pre>
+ * &lt;!-- maven: 加入processor依赖（或annotationProcessorPaths）即可 --&gt;
+ * &lt;dependency&gt;
+ *     &lt;groupId&gt;com.github.plprprpr&lt;/groupId&gt;
+ *     &lt;artifactId&gt;processor&lt;/artifactId&gt;
+ *     &lt;version&gt;1.0-SNAPSHOT&lt;/version&gt;
+ *     &lt;scope&gt;provided&lt;/scope&gt;
+ * &lt;/dependency&gt;</pre>
+ * <hr>
+ * <li>生成的类与被校验的类在同一个包中，类名为类名（嵌套类用_连接外部类名）+ Validator</li>
+ * <li>包含父类中标注的字段；不能直接访问的字段通过getter（getXxx或isXxx）读取，没有getter时编译报错</li>
+ * <li>父类中标注的字段被子类的同名字段隐藏时编译报错</li>
+ * <li>局部变量使用字段声明的泛型类型，泛型类的参数使用通配符（比如{@code Box<?>}），生成的代码没有rawtypes警告</li>
+ * <li>NotBlank在classpath中有CheckUtils时调用CheckUtils.isBlank，否则生成语义相同的判断</li>
+ * @author LiYan
+ */
+public class ValidatorProcessor extends AbstractProcessor {
+
+    private static final List<Class<? extends Annotation>> ANNOTATIONS =
+        Arrays.asList(NotNull.class, NotBlank.class, NotEmpty.class, Positive.class);
+
+    private static final String CHECK_UTILS = "pl.codesafe.util.CheckUtils";
+
+    private Elements elements;
+
+    private Types types;
+
+    private Messager messager;
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> names = new LinkedHashSet<>();
+        for (Class<? extends Annotation> annotation : ANNOTATIONS) {
+            names.add(annotation.getCanonicalName());
+        }
+        return names;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> targets = new LinkedHashSet<>();
+        for (Class<? extends Annotation> annotation : ANNOTATIONS) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD) {
+                    targets.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        for (TypeElement target : targets) {
+            if (generated.add(target.getQualifiedName().toString())) {
+                generate(target);
+            }
+        }
+        // 不独占这些注解，其他processor也可以处理
+        return false;
+    }
+
+    private void generate(TypeElement target) {
+        if (target.getModifiers().contains(Modifier.PRIVATE)) {
+            error(target, "不能为private类生成校验器");
+            return;
+        }
+        PackageElement pkg = elements.getPackageOf(target);
+        String validatorName = validatorName(target);
+        String targetType = types.erasure(target.asType()).toString();
+        List<VariableElement> fields = annotatedFields(target);
+        if (fields == null) {
+            return;
+        }
+
+        StringBuilder body = new StringBuilder();
+        int index = 0;
+        boolean ok = true;
+        for (VariableElement field : fields) {
+            Access access = access(target, field, pkg);
+            if (access == null) {
+                error(field, "字段" + field.getSimpleName() + "不能直接访问，也没有可访问的getter");
+                ok = false;
+                continue;
+            }
+            String local = "v" + index++;
+            // 使用声明的类型（泛型参数替换为通配符），不能使用擦除后的原始类型，否则使用方编译时会有rawtypes警告
+            body.append("        ").append(sourceType(access.type)).append(' ').append(local)
+                .append(" = ").append(access.expression).append(";\n");
+            for (String condition : conditions(field, access.type, local)) {
+                if (condition == null) {
+                    ok = false;
+                    continue;
+                }
+                body.append("        if (").append(condition).append(") {\n")
+                    .append("            return false;\n")
+                    .append("        }\n");
+            }
+        }
+        if (!ok) {
+            return;
+        }
+
+        boolean isPublic = target.getModifiers().contains(Modifier.PUBLIC);
+        // 生成的源码只使用ASCII字符，不受编译时-encoding的影响
+        StringBuilder source = new StringBuilder();
+        if (!pkg.isUnnamed()) {
+            source.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+        }
+        source.append("/**\n")
+            .append(" * Validator of {@link ").append(targetType).append("}, generated by ").append(getClass().getName()).append(", do not edit.\n")
+            .append(" */\n")
+            .append(isPublic ? "public " : "").append("final class ").append(validatorName).append(" {\n\n")
+            .append("    private ").append(validatorName).append("() {\n")
+            .append("    }\n\n")
+            .append("    /**\n")
+            .append("     * @return true if o is not null and all annotated fields pass\n")
+            .append("     */\n")
+            .append("    public static boolean valid(").append(parameterType(target)).append(" o) {\n")
+            .append("        if (o == null) {\n")
+            .append("            return false;\n")
+            .append("        }\n")
+            .append(body)
+            .append("        return true;\n")
+            .append("    }\n\n")
+            .append("}\n");
+
+        String qualifiedName = pkg.isUnnamed() ? validatorName : pkg.getQualifiedName() + "." + validatorName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, target).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(target, "生成" + qualifiedName + "失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 类及其父类中标注了校验注解的实例字段，父类的字段在前
+     * @return 字段；标注的字段被子类的同名字段隐藏时报错并返回null
+     */
+    private List<VariableElement> annotatedFields(TypeElement target) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        for (TypeElement t = target; t != null; t = superclass(t)) {
+            hierarchy.add(0, t);
+        }
+        List<VariableElement> fields = new ArrayList<>();
+        boolean ok = true;
+        for (int i = 0; i < hierarchy.size(); i++) {
+            for (Element element : hierarchy.get(i).getEnclosedElements()) {
+                if (element.getKind() == ElementKind.FIELD && !element.getModifiers().contains(Modifier.STATIC)
+                    && hasAnyAnnotation(element)) {
+                    TypeElement hiding = hidingSubclass(hierarchy, i, element.getSimpleName().toString());
+                    if (hiding != null) {
+                        error(element, "字段" + element.getSimpleName() + "被子类" + hiding.getQualifiedName()
+                            + "中的同名字段隐藏，生成的校验器无法区分，请重命名其中一个字段");
+                        ok = false;
+                        continue;
+                    }
+                    fields.add((VariableElement) element);
+                }
+            }
+        }
+        return ok ? fields : null;
+    }
+
+    /**
+     * hierarchy中位于index之后（更靠近子类）、声明了同名字段的类，没有时返回null
+     */
+    private TypeElement hidingSubclass(List<TypeElement> hierarchy, int index, String name) {
+        for (int i = hierarchy.size() - 1; i > index; i--) {
+            for (Element element : hierarchy.get(i).getEnclosedElements()) {
+                if (element.getKind() == ElementKind.FIELD && element.getSimpleName().contentEquals(name)) {
+                    return hierarchy.get(i);
+                }
+            }
+        }
+        return null;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private boolean hasAnyAnnotation(Element element) {
+        for (Class<? extends Annotation> annotation : ANNOTATIONS) {
+            if (element.getAnnotation(annotation) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取字段的表达式及其类型，不能访问时返回null
+     */
+    private Access access(TypeElement target, VariableElement field, PackageElement pkg) {
+        DeclaredType owner = (DeclaredType) target.asType();
+        if (accessible(field, pkg)) {
+            // 父类的泛型字段按子类中的实际类型读取
+            return new Access("o." + field.getSimpleName(), types.asMemberOf(owner, field));
+        }
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean isBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
+        for (Element member : elements.getAllMembers(target)) {
+            if (member.getKind() != ElementKind.METHOD || member.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) member;
+            String methodName = method.getSimpleName().toString();
+            boolean named = methodName.equals("get" + capitalized) || (isBoolean && methodName.equals("is" + capitalized));
+            if (named && method.getParameters().isEmpty() && accessible(method, pkg)
+                && types.isSameType(types.erasure(method.getReturnType()), types.erasure(field.asType()))) {
+                return new Access("o." + methodName + "()", ((ExecutableType) types.asMemberOf(owner, method)).getReturnType());
+            }
+        }
+        return null;
+    }
+
+    private boolean accessible(Element element, PackageElement pkg) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !modifiers.contains(Modifier.PRIVATE) && elements.getPackageOf(element).equals(pkg);
+    }
+
+    /**
+     * 字段不通过的条件，字段上的注解不能用于该类型时为null
+     * @param type 读取到的值的类型
+     */
+    private List<String> conditions(VariableElement field, TypeMirror type, String v) {
+        List<String> conditions = new ArrayList<>();
+        if (field.getAnnotation(NotNull.class) != null) {
+            if (type.getKind().isPrimitive()) {
+                conditions.add(unsupported(field, NotNull.class));
+            } else {
+                conditions.add(v + " == null");
+            }
+        }
+        if (field.getAnnotation(NotBlank.class) != null) {
+            if (!isType(type, "java.lang.String")) {
+                conditions.add(unsupported(field, NotBlank.class));
+            } else if (elements.getTypeElement(CHECK_UTILS) != null) {
+                conditions.add(CHECK_UTILS + ".isBlank(" + v + ")");
+            } else {
+                conditions.add(v + " == null || " + v + ".isEmpty() || \"null\".equalsIgnoreCase(" + v
+                    + ") || \"undefined\".equalsIgnoreCase(" + v + ")");
+            }
+        }
+        if (field.getAnnotation(NotEmpty.class) != null) {
+            if (type.getKind() == TypeKind.ARRAY) {
+                conditions.add(v + " == null || " + v + ".length == 0");
+            } else if (isSubtype(type, "java.lang.CharSequence")) {
+                conditions.add(v + " == null || " + v + ".length() == 0");
+            } else if (isSubtype(type, "java.util.Collection") || isSubtype(type, "java.util.Map")) {
+                conditions.add(v + " == null || " + v + ".isEmpty()");
+            } else {
+                conditions.add(unsupported(field, NotEmpty.class));
+            }
+        }
+        if (field.getAnnotation(Positive.class) != null) {
+            conditions.add(positiveCondition(field, type, v));
+        }
+        return conditions;
+    }
+
+    private String positiveCondition(VariableElement field, TypeMirror type, String v) {
+        switch (type.getKind()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                // 写成!(v > 0)，NaN不通过
+                return "!(" + v + " > 0)";
+            case DECLARED:
+                if (isBoxedNumber(type)) {
+                    return v + " == null || !(" + v + " > 0)";
+                }
+                if (isType(type, "java.math.BigDecimal") || isType(type, "java.math.BigInteger")) {
+                    return v + " == null || " + v + ".signum() <= 0";
+                }
+                if (isSubtype(type, "java.lang.Number")) {
+                    return v + " == null || !(" + v + ".doubleValue() > 0)";
+                }
+                return unsupported(field, Positive.class);
+            default:
+                return unsupported(field, Positive.class);
+        }
+    }
+
+    private boolean isBoxedNumber(TypeMirror type) {
+        try {
+            TypeKind kind = types.unboxedType(type).getKind();
+            return kind != TypeKind.BOOLEAN && kind != TypeKind.CHAR;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean isType(TypeMirror type, String name) {
+        TypeElement element = elements.getTypeElement(name);
+        return element != null && types.isSameType(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    private boolean isSubtype(TypeMirror type, String name) {
+        TypeElement element = elements.getTypeElement(name);
+        return element != null && types.isAssignable(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    private String unsupported(VariableElement field, Class<? extends Annotation> annotation) {
+        error(field, "@" + annotation.getSimpleName() + "不能用于" + field.asType() + "类型的字段" + field.getSimpleName());
+        return null;
+    }
+
+    /**
+     * 生成的源码中使用的类型：类型变量替换为上界，泛型参数中的类型变量替换为通配符
+     */
+    private String sourceType(TypeMirror type) {
+        switch (type.getKind()) {
+            case TYPEVAR:
+                return sourceType(((TypeVariable) type).getUpperBound());
+            case ARRAY:
+                return sourceType(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                DeclaredType declared = (DeclaredType) type;
+                List<? extends TypeMirror> arguments = declared.getTypeArguments();
+                if (arguments.isEmpty()) {
+                    return types.erasure(type).toString();
+                }
+                StringBuilder name = new StringBuilder(types.erasure(type).toString()).append('<');
+                for (int i = 0; i < arguments.size(); i++) {
+                    if (i > 0) {
+                        name.append(", ");
+                    }
+                    name.append(typeArgument(arguments.get(i)));
+                }
+                return name.append('>').toString();
+            case INTERSECTION:
+                return sourceType(((IntersectionType) type).getBounds().get(0));
+            default:
+                return type.toString();
+        }
+    }
+
+    private String typeArgument(TypeMirror argument) {
+        if (argument.getKind() == TypeKind.TYPEVAR) {
+            return "?";
+        }
+        if (argument.getKind() == TypeKind.WILDCARD) {
+            WildcardType wildcard = (WildcardType) argument;
+            if (wildcard.getExtendsBound() != null) {
+                return "? extends " + sourceType(wildcard.getExtendsBound());
+            }
+            if (wildcard.getSuperBound() != null && wildcard.getSuperBound().getKind() != TypeKind.TYPEVAR) {
+                return "? super " + sourceType(wildcard.getSuperBound());
+            }
+            return "?";
+        }
+        return sourceType(argument);
+    }
+
+    /**
+     * valid方法的参数类型，泛型类使用通配符，比如Box&lt;?&gt;
+     */
+    private String parameterType(TypeElement target) {
+        String name = types.erasure(target.asType()).toString();
+        int parameters = target.getTypeParameters().size();
+        if (parameters == 0) {
+            return name;
+        }
+        StringBuilder wildcards = new StringBuilder(name).append('<');
+        for (int i = 0; i < parameters; i++) {
+            wildcards.append(i > 0 ? ", ?" : "?");
+        }
+        return wildcards.append('>').toString();
+    }
+
+    private String validatorName(TypeElement target) {
+        StringBuilder name = new StringBuilder(target.getSimpleName());
+        for (Element e = target.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.append("Validator").toString();
+    }
+
+    private void error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * 读取字段的表达式及其类型
+     */
+    private static final class Access {
+
+        final String expression;
+
+        final TypeMirror type;
+
+        Access(String expression, TypeMirror type) {
+            this.expression = expression;
+            this.type = type;
+        }
+    }
+
+}
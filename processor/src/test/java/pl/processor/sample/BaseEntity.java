@@ -0,0 +1,21 @@
+package pl.processor.sample;
+
+import pl.abstracts.validate.annotation.NotNull;
+
+/**
+ * 编译时检查生成的校验器：父类中的泛型字段和只能通过getter访问的字段
+ * @author LiYan
+ */
+public class BaseEntity<ID> {
+
+    @NotNull
+    protected ID id;
+
+    @NotNull
+    private Long createdAt;
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+}
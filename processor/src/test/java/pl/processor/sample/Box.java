@@ -0,0 +1,19 @@
+package pl.processor.sample;
+
+import java.util.List;
+import pl.abstracts.validate.annotation.NotEmpty;
+import pl.abstracts.validate.annotation.NotNull;
+
+/**
+ * 编译时检查生成的校验器：泛型类使用通配符参数，类型变量使用上界
+ * @author LiYan
+ */
+public class Box<T extends Comparable<T>> {
+
+    @NotNull
+    T value;
+
+    @NotEmpty
+    List<T> values;
+
+}
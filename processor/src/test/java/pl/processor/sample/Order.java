@@ -0,0 +1,42 @@
+package pl.processor.sample;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import pl.abstracts.validate.annotation.NotBlank;
+import pl.abstracts.validate.annotation.NotEmpty;
+import pl.abstracts.validate.annotation.NotNull;
+import pl.abstracts.validate.annotation.Positive;
+
+/**
+ * 编译时检查生成的校验器：参数化类型的字段不能生成原始类型的局部变量
+ * @author LiYan
+ */
+public class Order extends BaseEntity<Long> {
+
+    @NotBlank
+    String code;
+
+    @NotEmpty
+    List<String> items;
+
+    @NotEmpty
+    Map<String, List<Integer>> quantities;
+
+    @NotEmpty
+    String[] tags;
+
+    @Positive
+    int count;
+
+    @Positive
+    BigDecimal amount;
+
+    @NotNull
+    private Boolean paid;
+
+    public Boolean getPaid() {
+        return paid;
+    }
+
+}
@@ -0,0 +1,16 @@
+package pl.processor.sample;
+
+/**
+ * 编译时检查生成的校验器可以按预期调用
+ * @author LiYan
+ */
+final class SampleUsage {
+
+    private SampleUsage() {
+    }
+
+    static boolean valid(Order order, Box<String> box) {
+        return OrderValidator.valid(order) && BoxValidator.valid(box);
+    }
+
+}